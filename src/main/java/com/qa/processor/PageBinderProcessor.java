@@ -0,0 +1,264 @@
+package com.qa.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The PageBinderProcessor generates a binder per page object and platform at compile time, e.g.
+ * {@code LoginPageAndroidBinder} and {@code LoginPageIOSBinder} next to {@code LoginPage}. A binder assigns
+ * an element proxy to every WebElement field of the page, with the locator resolved from its
+ * {@code @AndroidFindBy} or {@code @iOSXCUITFindBy} annotation baked in as a constant, so that wiring a page
+ * needs neither reflection nor annotation parsing at runtime.
+ *
+ * Locators are resolved with the rules of the Appium field decorator: the annotation of the platform, or
+ * {@code By.id(<field name>)} when the field has none. A page is skipped, with a warning, when one of its fields
+ * cannot be resolved that way (several strategies, Espresso matchers, @FindBys-like annotations) or cannot be
+ * assigned from the page package; PageMetadataCache then wires it by reflection as before.
+ *
+ * It runs on the test sources, see the maven-compiler-plugin configuration in the pom.
+ */
+public class PageBinderProcessor extends AbstractProcessor {
+    private static final String BASE_PAGE = "com.qa.pages.BasePage";
+    private static final String BINDER_INTERFACE = "com.qa.pages.PageBinder";
+    private static final String ELEMENT_FACTORY = "com.qa.pages.PageMetadataCache";
+
+    private static final String WEB_ELEMENT = "org.openqa.selenium.WebElement";
+    private static final String ANDROID_FIND_BY = "io.appium.java_client.pagefactory.AndroidFindBy";
+    private static final String IOS_FIND_BY = "io.appium.java_client.pagefactory.iOSXCUITFindBy";
+
+    // Strategy attribute of each annotation and the factory method the Appium field decorator resolves it with
+    private static final Map<String, String> STRATEGIES = new LinkedHashMap<>();
+
+    static {
+        STRATEGIES.put("accessibility", "io.appium.java_client.AppiumBy.accessibilityId");
+        STRATEGIES.put("id", "io.appium.java_client.AppiumBy.id");
+        STRATEGIES.put("className", "io.appium.java_client.AppiumBy.className");
+        STRATEGIES.put("tagName", "org.openqa.selenium.By.tagName");
+        STRATEGIES.put("xpath", "org.openqa.selenium.By.xpath");
+        STRATEGIES.put("uiAutomator", "io.appium.java_client.AppiumBy.androidUIAutomator");
+        STRATEGIES.put("iOSNsPredicate", "io.appium.java_client.AppiumBy.iOSNsPredicateString");
+        STRATEGIES.put("iOSClassChain", "io.appium.java_client.AppiumBy.iOSClassChain");
+    }
+
+    private enum Target {
+        ANDROID("Android", "Android", ANDROID_FIND_BY),
+        IOS("iOS", "IOS", IOS_FIND_BY);
+
+        private final String platformName;
+        private final String binderSuffix;
+        private final String annotation;
+
+        Target(String platformName, String binderSuffix, String annotation) {
+            this.platformName = platformName;
+            this.binderSuffix = binderSuffix;
+            this.annotation = annotation;
+        }
+    }
+
+    private static final class BoundField {
+        private final VariableElement field;
+        private final String locator;
+
+        private BoundField(VariableElement field, String locator) {
+            this.field = field;
+            this.locator = locator;
+        }
+    }
+
+    private static final class UnsupportedFieldException extends Exception {
+        private UnsupportedFieldException(VariableElement field, String reason) {
+            super(field.getEnclosingElement().getSimpleName() + "." + field.getSimpleName() + " " + reason);
+        }
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        // Pages without annotated fields of their own still need a binder for the inherited ones
+        return Set.of("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement basePage = processingEnv.getElementUtils().getTypeElement(BASE_PAGE);
+        if (basePage == null) {
+            return false;
+        }
+        for (Element element : roundEnv.getRootElements()) {
+            if (element.getKind() == ElementKind.CLASS && !element.getModifiers().contains(Modifier.ABSTRACT)
+                    && processingEnv.getTypeUtils().isSubtype(element.asType(), basePage.asType())) {
+                for (Target target : Target.values()) {
+                    generate((TypeElement) element, target);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement page, Target target) {
+        List<BoundField> fields = new ArrayList<>();
+        try {
+            PackageElement pagePackage = processingEnv.getElementUtils().getPackageOf(page);
+            for (TypeElement c = page; c != null; c = superclass(c)) {
+                for (Element member : c.getEnclosedElements()) {
+                    if (member.getKind() == ElementKind.FIELD && !member.getModifiers().contains(Modifier.STATIC)
+                            && member.asType().toString().equals(WEB_ELEMENT)) {
+                        VariableElement field = (VariableElement) member;
+                        if (field.getModifiers().contains(Modifier.PRIVATE)
+                                || !processingEnv.getElementUtils().getPackageOf(c).equals(pagePackage)) {
+                            throw new UnsupportedFieldException(field, "is not accessible from " + pagePackage);
+                        }
+                        fields.add(new BoundField(field, locator(field, target)));
+                    }
+                }
+            }
+        } catch (UnsupportedFieldException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "No " + target.platformName
+                    + " binder generated for " + page.getSimpleName() + ", its elements are wired by reflection: "
+                    + e.getMessage(), page);
+            return;
+        }
+
+        String packageName = processingEnv.getElementUtils().getPackageOf(page).getQualifiedName().toString();
+        String binderName = page.getSimpleName() + target.binderSuffix + "Binder";
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler()
+                .createSourceFile(packageName + "." + binderName, page).openWriter())) {
+            out.println("package " + packageName + ";");
+            out.println();
+            out.println("/**");
+            out.println(" * Wires the elements of " + page.getSimpleName() + " on " + target.platformName
+                    + ". Generated by " + getClass().getSimpleName() + ", do not edit.");
+            out.println(" */");
+            out.println("@javax.annotation.processing.Generated(\"" + getClass().getName() + "\")");
+            out.println("public final class " + binderName + " implements " + BINDER_INTERFACE + "<"
+                    + page.getSimpleName() + "> {");
+            for (BoundField boundField : fields) {
+                out.println("    private static final org.openqa.selenium.By " + constantName(boundField) + " = "
+                        + boundField.locator + ";");
+            }
+            out.println();
+            out.println("    @Override");
+            out.println("    public void bind(" + page.getSimpleName()
+                    + " page, io.appium.java_client.AppiumDriver driver) {");
+            for (BoundField boundField : fields) {
+                TypeElement declaringClass = (TypeElement) boundField.field.getEnclosingElement();
+                String receiver = declaringClass.equals(page) ? "page"
+                        : "((" + declaringClass.getSimpleName() + ") page)";
+                out.println("        " + receiver + "." + boundField.field.getSimpleName() + " = " + ELEMENT_FACTORY
+                        + ".newElementProxy(driver, " + constantName(boundField) + ", \""
+                        + declaringClass.getSimpleName() + "." + boundField.field.getSimpleName() + "\");");
+            }
+            out.println("    }");
+            out.println("}");
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate " + binderName
+                    + ": " + e, page);
+        }
+    }
+
+    private String locator(VariableElement field, Target target) throws UnsupportedFieldException {
+        AnnotationMirror annotation = null;
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            String name = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+            if (name.equals(target.annotation)) {
+                annotation = mirror;
+            } else if (!name.equals(ANDROID_FIND_BY) && !name.equals(IOS_FIND_BY)
+                    && (name.startsWith("io.appium.java_client.pagefactory.")
+                    || name.startsWith("org.openqa.selenium.support."))) {
+                throw new UnsupportedFieldException(field, "is annotated with @" + name);
+            }
+        }
+        if (annotation == null) {
+            return "org.openqa.selenium.By.id(" + literal(field.getSimpleName().toString()) + ")";
+        }
+
+        String locator = null;
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).entrySet()) {
+            String attribute = entry.getKey().getSimpleName().toString();
+            Object value = entry.getValue().getValue();
+            if (attribute.equals("priority") || !(value instanceof String) || ((String) value).isEmpty()) {
+                continue;
+            }
+            if (!STRATEGIES.containsKey(attribute)) {
+                throw new UnsupportedFieldException(field, "uses the unsupported strategy " + attribute);
+            }
+            if (locator != null) {
+                throw new UnsupportedFieldException(field, "has more than one locator strategy");
+            }
+            locator = STRATEGIES.get(attribute) + "(" + literal((String) value) + ")";
+        }
+        if (locator == null) {
+            throw new UnsupportedFieldException(field, "has no locator strategy");
+        }
+        return locator;
+    }
+
+    private TypeElement superclass(TypeElement c) {
+        TypeMirror superclass = c.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+    }
+
+    private String constantName(BoundField boundField) {
+        return boundField.field.getEnclosingElement().getSimpleName() + "_" + boundField.field.getSimpleName();
+    }
+
+    private String literal(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,64 @@
+package com.qa.listeners;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.HookTestStep;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestStep;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.cucumber.plugin.event.TestStepStarted;
+import org.apache.logging.log4j.ThreadContext;
+
+import java.util.Arrays;
+
+/**
+ * The ScenarioLogContextPlugin class is a Cucumber plugin that tags the log records of a scenario: while a scenario
+ * runs, the thread context holds its id ({@code SCENARIO}, the feature file and line, e.g. {@code Login.feature:12}),
+ * the current step or hook ({@code STEP}) and the device it runs on ({@code DEVICE}, the routing key when the
+ * scenario started, which stays set while the server logs are routed elsewhere).
+ *
+ * The ScenarioSegmentAppender uses these keys to write the logs of every scenario to segment files with an index,
+ * see ScenarioLogIndex to extract them.
+ */
+public class ScenarioLogContextPlugin implements ConcurrentEventListener {
+    public static final String SCENARIO = "SCENARIO";
+    public static final String STEP = "STEP";
+    public static final String DEVICE = "DEVICE";
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        // Cucumber publishes the events of a scenario on the thread running it
+        publisher.registerHandlerFor(TestCaseStarted.class, this::caseStarted);
+        publisher.registerHandlerFor(TestStepStarted.class, event -> ThreadContext.put(STEP, nameOf(event.getTestStep())));
+        publisher.registerHandlerFor(TestStepFinished.class, event -> ThreadContext.remove(STEP));
+        publisher.registerHandlerFor(TestCaseFinished.class, event -> ThreadContext.removeAll(
+                Arrays.asList(SCENARIO, STEP, DEVICE)));
+    }
+
+    /**
+     * @param testCase a scenario
+     * @return the id of the scenario in the logs, the name of its feature file and its line
+     */
+    public static String idOf(TestCase testCase) {
+        String path = testCase.getUri().getPath() != null ? testCase.getUri().getPath()
+                : testCase.getUri().getSchemeSpecificPart();
+        return path.substring(path.lastIndexOf('/') + 1) + ":" + testCase.getLocation().getLine();
+    }
+
+    private void caseStarted(TestCaseStarted event) {
+        String routingKey = ThreadContext.get("ROUTINGKEY");
+        ThreadContext.put(DEVICE, routingKey != null ? routingKey : "unknown");
+        ThreadContext.put(SCENARIO, idOf(event.getTestCase()));
+    }
+
+    private String nameOf(TestStep step) {
+        if (step instanceof PickleStepTestStep) {
+            PickleStepTestStep pickleStep = (PickleStepTestStep) step;
+            return pickleStep.getStep().getKeyword() + pickleStep.getStep().getText();
+        }
+        return ((HookTestStep) step).getHookType() + " " + step.getCodeLocation();
+    }
+}
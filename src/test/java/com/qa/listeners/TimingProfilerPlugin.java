@@ -0,0 +1,223 @@
+package com.qa.listeners;
+
+import com.qa.utils.TestUtils;
+import com.qa.utils.ThreadTimings;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.HookTestStep;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestStep;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.cucumber.plugin.event.TestStepStarted;
+import org.apache.logging.log4j.ThreadContext;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The TimingProfilerPlugin class is a Cucumber plugin that times every scenario, step and hook, and splits the
+ * time of each step or hook into explicit waits, driver commands sent outside of waits, and the remaining
+ * client-side time (see ThreadTimings).
+ *
+ * At the end of the run it writes, to the output directory given as plugin argument (target/timing by default):
+ * - a Chrome trace-event file per device, {@code <device>.trace.json}, to open in chrome://tracing or Perfetto,
+ *   with one row per thread and a slice per scenario, step and hook;
+ * - a hotspot report per device, {@code <device>.hotspots.txt}, the steps (by step definition pattern) and hooks
+ *   with the most total time.
+ * The top of every hotspot report is logged as well. Each TestNG {@code <test>} has its own runner and so its own
+ * plugin instance, which writes the files of its devices.
+ *
+ * Register it with {@code "com.qa.listeners.TimingProfilerPlugin:target/timing"} in the plugins of a runner.
+ */
+public class TimingProfilerPlugin implements ConcurrentEventListener {
+    private static final int LOGGED_HOTSPOTS = 15;
+
+    private final Path outputDir;
+    private final Map<String, List<JSONObject>> traces = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Hotspot>> hotspots = new ConcurrentHashMap<>();
+    // Cucumber publishes the events of a scenario on the thread running it
+    private final ThreadLocal<Instant> caseStarts = new ThreadLocal<>();
+    private final ThreadLocal<ThreadTimings.Reading> stepReadings = new ThreadLocal<>();
+    private final ThreadLocal<Instant> stepStarts = new ThreadLocal<>();
+
+    TestUtils utils = new TestUtils();
+
+    private static final class Hotspot {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAdder driverNanos = new LongAdder();
+        private final LongAdder driverCalls = new LongAdder();
+    }
+
+    public TimingProfilerPlugin() {
+        this("target/timing");
+    }
+
+    /**
+     * @param outputDir the directory the trace files and hotspot report are written to
+     */
+    public TimingProfilerPlugin(String outputDir) {
+        this.outputDir = Paths.get(outputDir);
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseStarted.class, event -> caseStarts.set(event.getInstant()));
+        publisher.registerHandlerFor(TestStepStarted.class, this::stepStarted);
+        publisher.registerHandlerFor(TestStepFinished.class, this::stepFinished);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::caseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> writeReports());
+    }
+
+    private void stepStarted(TestStepStarted event) {
+        stepStarts.set(event.getInstant());
+        stepReadings.set(new ThreadTimings().read());
+    }
+
+    private void stepFinished(TestStepFinished event) {
+        ThreadTimings.Reading start = stepReadings.get();
+        ThreadTimings.Reading end = new ThreadTimings().read();
+        long nanos = event.getResult().getDuration().toNanos();
+        long waitNanos = start == null ? 0 : end.waitNanosSince(start);
+        long driverNanos = start == null ? 0 : end.driverNanosSince(start);
+        long driverCalls = start == null ? 0 : end.driverCallsSince(start);
+
+        TestStep step = event.getTestStep();
+        String name;
+        String hotspotName;
+        String category;
+        if (step instanceof PickleStepTestStep) {
+            PickleStepTestStep pickleStep = (PickleStepTestStep) step;
+            name = pickleStep.getStep().getKeyword() + pickleStep.getStep().getText();
+            hotspotName = "Step " + pickleStep.getPattern();
+            category = "step";
+        } else {
+            name = ((HookTestStep) step).getHookType() + " " + methodOf(step.getCodeLocation());
+            hotspotName = "Hook " + name;
+            category = "hook";
+        }
+
+        Hotspot hotspot = hotspots.computeIfAbsent(getDevice(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(hotspotName, k -> new Hotspot());
+        hotspot.count.increment();
+        hotspot.totalNanos.add(nanos);
+        hotspot.maxNanos.accumulate(nanos);
+        hotspot.waitNanos.add(waitNanos);
+        hotspot.driverNanos.add(driverNanos);
+        hotspot.driverCalls.add(driverCalls);
+
+        JSONObject args = new JSONObject()
+                .put("status", event.getResult().getStatus().name())
+                .put("wait_ms", waitNanos / 1_000_000)
+                .put("driver_ms", driverNanos / 1_000_000)
+                .put("driver_calls", driverCalls)
+                .put("other_ms", Math.max(0, nanos - waitNanos - driverNanos) / 1_000_000);
+        Instant started = stepStarts.get() != null ? stepStarts.get() : event.getInstant().minusNanos(nanos);
+        addTraceEvent(name, category, started, nanos, args);
+    }
+
+    private void caseFinished(TestCaseFinished event) {
+        Instant started = caseStarts.get() != null ? caseStarts.get() : event.getInstant();
+        long nanos = event.getResult().getDuration().toNanos();
+        addTraceEvent(event.getTestCase().getName(), "scenario", started, nanos, new JSONObject()
+                .put("status", event.getResult().getStatus().name())
+                .put("uri", String.valueOf(event.getTestCase().getUri()))
+                .put("line", event.getTestCase().getLocation().getLine()));
+    }
+
+    private void addTraceEvent(String name, String category, Instant start, long nanos, JSONObject args) {
+        JSONObject traceEvent = new JSONObject()
+                .put("name", name)
+                .put("cat", category)
+                .put("ph", "X")
+                .put("ts", start.getEpochSecond() * 1_000_000 + start.getNano() / 1_000)
+                .put("dur", nanos / 1_000)
+                .put("pid", 1)
+                .put("tid", Thread.currentThread().threadId())
+                .put("args", args);
+        traces.computeIfAbsent(getDevice(), k -> Collections.synchronizedList(new ArrayList<>())).add(traceEvent);
+    }
+
+    private void writeReports() {
+        try {
+            Files.createDirectories(outputDir);
+            for (Map.Entry<String, List<JSONObject>> entry : traces.entrySet()) {
+                JSONArray traceEvents = new JSONArray();
+                traceEvents.put(new JSONObject().put("name", "process_name").put("ph", "M").put("pid", 1)
+                        .put("args", new JSONObject().put("name", entry.getKey())));
+                synchronized (entry.getValue()) {
+                    entry.getValue().forEach(traceEvents::put);
+                }
+                Path file = outputDir.resolve(fileNameOf(entry.getKey()) + ".trace.json");
+                Files.write(file, new JSONObject().put("traceEvents", traceEvents).put("displayTimeUnit", "ms")
+                        .toString().getBytes(StandardCharsets.UTF_8));
+            }
+
+            for (Map.Entry<String, Map<String, Hotspot>> entry : hotspots.entrySet()) {
+                List<String> report = hotspotReport(entry.getValue());
+                Path file = outputDir.resolve(fileNameOf(entry.getKey()) + ".hotspots.txt");
+                Files.write(file, report, StandardCharsets.UTF_8);
+                utils.log().info("Timing hotspots on " + entry.getKey() + " (" + file + "):" + System.lineSeparator()
+                        + String.join(System.lineSeparator(), report.subList(0, Math.min(report.size(),
+                        LOGGED_HOTSPOTS + 1))));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the timing reports to " + outputDir, e);
+        }
+    }
+
+    private List<String> hotspotReport(Map<String, Hotspot> hotspots) {
+        List<Map.Entry<String, Hotspot>> entries = new ArrayList<>(hotspots.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().totalNanos.sum(), a.getValue().totalNanos.sum()));
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%10s %6s %9s %9s %9s %9s %9s %7s  %s", "total(ms)", "n", "mean(ms)", "max(ms)",
+                "wait(ms)", "driver(ms)", "other(ms)", "calls", "step or hook"));
+        for (Map.Entry<String, Hotspot> entry : entries) {
+            Hotspot hotspot = entry.getValue();
+            long total = hotspot.totalNanos.sum();
+            long wait = hotspot.waitNanos.sum();
+            long driver = hotspot.driverNanos.sum();
+            lines.add(String.format("%10d %6d %9d %9d %9d %9d %9d %7d  %s", total / 1_000_000, hotspot.count.sum(),
+                    total / Math.max(1, hotspot.count.sum()) / 1_000_000, hotspot.maxNanos.get() / 1_000_000,
+                    wait / 1_000_000, driver / 1_000_000, Math.max(0, total - wait - driver) / 1_000_000,
+                    hotspot.driverCalls.sum(), entry.getKey()));
+        }
+        return lines;
+    }
+
+    private String fileNameOf(String device) {
+        return device.replaceAll("[^\\w.-]", "_");
+    }
+
+    private String getDevice() {
+        String routingKey = ThreadContext.get("ROUTINGKEY");
+        return routingKey != null ? routingKey : "unknown";
+    }
+
+    // com.qa.stepDef.Hooks.quit(io.cucumber.java.Scenario) -> Hooks.quit
+    private String methodOf(String codeLocation) {
+        String method = codeLocation.contains("(") ? codeLocation.substring(0, codeLocation.indexOf('(')) : codeLocation;
+        int lastDot = method.lastIndexOf('.');
+        int classDot = lastDot > 0 ? method.lastIndexOf('.', lastDot - 1) : -1;
+        return method.substring(classDot + 1);
+    }
+}
@@ -2,20 +2,22 @@ package com.qa.pages;
 
 import com.qa.utils.DriverManager;
 import com.qa.utils.GlobalParams;
+import com.qa.utils.Platform;
 import com.qa.utils.TestUtils;
+import com.qa.utils.WaitEngine;
 import io.appium.java_client.AppiumBy;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.InteractsWithApps;
-import io.appium.java_client.pagefactory.AppiumFieldDecorator;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
 import org.openqa.selenium.remote.RemoteWebElement;
-import org.openqa.selenium.support.PageFactory;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+import org.w3c.dom.Element;
 
+import java.lang.reflect.Proxy;
 import java.time.Duration;
 import java.util.HashMap;
 
@@ -27,63 +29,95 @@ public class BasePage {
      * and executing commands on the mobile application's user interface.
      */
     private AppiumDriver driver;
+    /**
+     * The platform the page is used on, resolved once when the page is constructed.
+     */
+    final Platform platform;
     TestUtils utils = new TestUtils();
 
     /**
      * The BasePage class serves as a foundational class for all page objects in the framework.
-     * It initializes the Appium driver and configures the element initialization using
-     * the PageFactory and AppiumFieldDecorator to support Appium-driven mobile automation.
+     * It initializes the Appium driver and wires the annotated elements from the PageMetadataCache,
+     * with the binder generated for the page class and platform at compile time, or else with the locators
+     * it resolves once per page class and platform instead of on every construction.
      * This constructor ensures that the driver and elements are properly initialized
      * before interacting with any page-specific elements or actions.
      */
     public BasePage(){
         this.driver = new DriverManager().getDriver();
-        PageFactory.initElements(new AppiumFieldDecorator(this.driver), this);
+        this.platform = new GlobalParams().getPlatform();
+        new PageMetadataCache().initElements(this, this.driver, platform);
     }
 
     public void waitForVisibility(WebElement e) {
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(TestUtils.WAIT));
-        wait.until(ExpectedConditions.visibilityOf(e));
+        new WaitEngine().until(driver, getClass().getSimpleName(), describe(e), ExpectedConditions.visibilityOf(e));
     }
 
     public void waitForVisibility(By e) {
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(TestUtils.WAIT));
-        wait.until(ExpectedConditions.visibilityOfElementLocated(e));
+        new WaitEngine().until(driver, getClass().getSimpleName(), e.toString(),
+                ExpectedConditions.visibilityOfElementLocated(e));
+    }
+
+    // Page fields hold element proxies, the id is that of the element they wrap
+    private String getElementId(WebElement e) {
+        WebElement element = e instanceof WrapsElement ? ((WrapsElement) e).getWrappedElement() : e;
+        return ((RemoteWebElement) element).getId();
+    }
+
+    // Page object fields describe themselves; other elements are grouped so the wait stats stay bounded
+    private String describe(WebElement e) {
+        return Proxy.isProxyClass(e.getClass()) ? e.toString() : e.getClass().getSimpleName();
     }
 
     public void clear(WebElement e) {
+        PageSnapshot.invalidate();
         waitForVisibility(e);
         e.clear();
     }
 
     public void click(WebElement e) {
+        PageSnapshot.invalidate();
         waitForVisibility(e);
         e.click();
     }
 
     public void click(WebElement e, String msg) {
+        PageSnapshot.invalidate();
         waitForVisibility(e);
         utils.log().info(msg);
         e.click();
     }
 
     public void click(By e, String msg) {
+        PageSnapshot.invalidate();
         waitForVisibility(e);
         utils.log().info(msg);
         driver.findElement(e).click();
     }
 
     public void sendKeys(WebElement e, String txt) {
+        PageSnapshot.invalidate();
         waitForVisibility(e);
         e.sendKeys(txt);
     }
 
     public void sendKeys(WebElement e, String txt, String msg) {
+        PageSnapshot.invalidate();
         waitForVisibility(e);
         utils.log().info(msg);
         e.sendKeys(txt);
     }
 
+    /**
+     * Starts a composite action: taps and text entries on this screen that are performed as one W3C Actions
+     * call where the driver supports it, see {@link CompositeAction}.
+     *
+     * @return a new composite action
+     */
+    public CompositeAction composite() {
+        return new CompositeAction(this, driver, platform);
+    }
+
     public String getAttribute(WebElement e, String attribute) {
         waitForVisibility(e);
         return e.getAttribute(attribute);
@@ -95,70 +129,109 @@ public class BasePage {
     }
 
     public String getText(WebElement e, String msg) {
-        String txt;
-        switch(new GlobalParams().getPlatformName()){
-            case "Android":
-                txt = getAttribute(e, "text");
-                break;
-            case "iOS":
-                txt = getAttribute(e, "label");
-                break;
-            default:
-                throw new IllegalStateException("Unexpected value: " + new GlobalParams().getPlatformName());
+        String txt = e instanceof LocatorBacked ? getSnapshotText(((LocatorBacked) e).getBy()) : null;
+        if (txt == null) {
+            switch(platform){
+                case ANDROID:
+                    txt = getAttribute(e, "text");
+                    break;
+                case IOS:
+                    txt = getAttribute(e, "label");
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected value: " + platform);
+            }
         }
-        utils.log().info(msg + txt);
+        utils.log().info("{}{}", msg, txt);
         return txt;
     }
 
     public String getText(By e, String msg) {
-        String txt;
-        switch(new GlobalParams().getPlatformName()){
-            case "Android":
-                txt = getAttribute(e, "text");
-                break;
-            case "iOS":
-                txt = getAttribute(e, "label");
-                break;
-            default:
-                throw new IllegalStateException("Unexpected value: " + new GlobalParams().getPlatformName());
+        String txt = getSnapshotText(e);
+        if (txt == null) {
+            switch(platform){
+                case ANDROID:
+                    txt = getAttribute(e, "text");
+                    break;
+                case IOS:
+                    txt = getAttribute(e, "label");
+                    break;
+                default:
+                    throw new IllegalStateException("Unexpected value: " + platform);
+            }
         }
-        utils.log().info(msg + txt);
+        utils.log().info("{}{}", msg, txt);
         return txt;
     }
 
+    /**
+     * Takes a snapshot of the current screen once the anchor element is visible. Until the next click, text entry,
+     * scroll or navigation, getText reads the elements it can locate in the snapshot locally, without a round trip.
+     *
+     * @param anchor an element of the screen that is visible once the screen is loaded
+     */
+    public void takeSnapshot(WebElement anchor) {
+        waitForVisibility(anchor);
+        takeSnapshot();
+    }
+
+    /**
+     * Takes a snapshot of the current screen as it is, see {@link #takeSnapshot(WebElement)}.
+     *
+     * @return the new snapshot
+     */
+    public PageSnapshot takeSnapshot() {
+        return PageSnapshot.capture(driver, platform.getPlatformName());
+    }
+
+    private String getSnapshotText(By by) {
+        PageSnapshot snapshot = PageSnapshot.active();
+        if (snapshot == null || !snapshot.supports(by)) {
+            return null;
+        }
+        Element element = snapshot.findElement(by);
+        if (element == null) {
+            return null;
+        }
+        return snapshot.getText(element);
+    }
+
     public void closeApp() {
-        switch(new GlobalParams().getPlatformName()){
-            case "Android":
+        new PageRegistry().invalidate();
+        switch(platform){
+            case ANDROID:
                 ((InteractsWithApps) driver).terminateApp(driver.getCapabilities().
                         getCapability("appPackage").toString());
                 break;
-            case "iOS":
+            case IOS:
                 ((InteractsWithApps) driver).terminateApp(driver.getCapabilities().
                         getCapability("bundleId").toString());
         }
     }
 
     public void launchApp() {
-        switch(new GlobalParams().getPlatformName()){
-            case "Android":
+        new PageRegistry().invalidate();
+        switch(platform){
+            case ANDROID:
                 ((InteractsWithApps) driver).activateApp(driver.getCapabilities().
                         getCapability("appPackage").toString());
                 break;
-            case "iOS":
+            case IOS:
                 ((InteractsWithApps) driver).activateApp(driver.getCapabilities().
                         getCapability("bundleId").toString());
         }
     }
 
     public WebElement andScrollToElementUsingUiScrollable(String childLocAttr, String childLocValue) {
+        PageSnapshot.invalidate();
         return driver.findElement(AppiumBy.androidUIAutomator(
                 "new UiScrollable(new UiSelector()" + ".scrollable(true)).scrollIntoView("
                         + "new UiSelector()."+ childLocAttr +"(\"" + childLocValue + "\"));"));
     }
 
     public WebElement iOSScrollToElementUsingMobileScroll(WebElement e) {
-        RemoteWebElement element = ((RemoteWebElement) e);
-        String elementID = element.getId();
+        PageSnapshot.invalidate();
+        String elementID = getElementId(e);
         HashMap<String, String> scrollObject = new HashMap<String, String>();
         scrollObject.put("element", elementID);
 //	  scrollObject.put("direction", "down");
@@ -170,8 +243,8 @@ public class BasePage {
     }
 
     public By iOSScrollToElementUsingMobileScrollParent(WebElement parentE, String predicateString) {
-        RemoteWebElement parent = (RemoteWebElement)parentE;
-        String parentID = parent.getId();
+        PageSnapshot.invalidate();
+        String parentID = getElementId(parentE);
         HashMap<String, String> scrollObject = new HashMap<String, String>();
         scrollObject.put("element", parentID);
 //	  scrollObject.put("direction", "down");
@@ -254,8 +327,8 @@ public class BasePage {
 
     public boolean find(final WebElement element, int timeout) {
         try {
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeout));
-            return wait.until(new ExpectedCondition<Boolean>() {
+            return new WaitEngine().until(this.driver, getClass().getSimpleName(), describe(element),
+                    Duration.ofSeconds(timeout), new ExpectedCondition<Boolean>() {
                 @Override
                 public Boolean apply(WebDriver driver) {
                     if (element.isDisplayed()) {
@@ -271,8 +344,8 @@ public class BasePage {
 
     public boolean find(final By element, int timeout) {
         try {
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeout));
-            return wait.until(new ExpectedCondition<Boolean>() {
+            return new WaitEngine().until(this.driver, getClass().getSimpleName(), element.toString(),
+                    Duration.ofSeconds(timeout), new ExpectedCondition<Boolean>() {
                 @Override
                 public Boolean apply(WebDriver driver) {
                     if (driver.findElement(element).isDisplayed()) {
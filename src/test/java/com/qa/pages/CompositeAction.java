@@ -0,0 +1,166 @@
+package com.qa.pages;
+
+import com.qa.utils.Platform;
+import com.qa.utils.TestUtils;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.InputSource;
+import org.openqa.selenium.interactions.Interaction;
+import org.openqa.selenium.interactions.KeyInput;
+import org.openqa.selenium.interactions.Pause;
+import org.openqa.selenium.interactions.PointerInput;
+import org.openqa.selenium.interactions.Sequence;
+import org.openqa.selenium.remote.SessionId;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The CompositeAction class collects a sequence of taps and text entries on one screen, such as filling and
+ * submitting a form, and performs it as a single W3C Actions call: a touch pointer taps the elements and a
+ * keyboard selects the existing text (CONTROL+a) and types over it. Only the first element is waited for.
+ *
+ * The batched form is used on Android for ASCII text. On iOS, for other text, or when the server does not
+ * support the Actions command, the steps are performed one by one with the clear, sendKeys and click of the page.
+ * Create one with {@link BasePage#composite()}.
+ */
+public class CompositeAction {
+    private static final Set<SessionId> unsupportedSessions = ConcurrentHashMap.newKeySet();
+    // Lets the tapped field take the focus before the keys are sent to it
+    private static final Duration FOCUS_DELAY = Duration.ofMillis(100);
+
+    private final BasePage page;
+    private final AppiumDriver driver;
+    private final Platform platform;
+    private final List<Step> steps = new ArrayList<>();
+
+    TestUtils utils = new TestUtils();
+
+    private static final class Step {
+        private final WebElement element;
+        private final String text;
+
+        private Step(WebElement element, String text) {
+            this.element = element;
+            this.text = text;
+        }
+    }
+
+    CompositeAction(BasePage page, AppiumDriver driver, Platform platform) {
+        this.page = page;
+        this.driver = driver;
+        this.platform = platform;
+    }
+
+    /**
+     * Replaces the text of a field.
+     *
+     * @param element the text field
+     * @param text the text to enter
+     * @return this composite action
+     */
+    public CompositeAction type(WebElement element, String text) {
+        steps.add(new Step(element, text));
+        return this;
+    }
+
+    /**
+     * Taps an element.
+     *
+     * @param element the element to tap
+     * @return this composite action
+     */
+    public CompositeAction tap(WebElement element) {
+        steps.add(new Step(element, null));
+        return this;
+    }
+
+    /**
+     * Performs the steps, in one call if possible.
+     *
+     * @param msg the message to log
+     */
+    public void perform(String msg) {
+        if (steps.isEmpty()) {
+            return;
+        }
+        PageSnapshot.invalidate();
+        utils.log().info(msg);
+        if (isBatchable()) {
+            page.waitForVisibility(steps.get(0).element);
+            try {
+                driver.perform(compile());
+                return;
+            } catch (UnsupportedCommandException e) {
+                // The server rejects the command before acting on it, so the steps can be performed again
+                unsupportedSessions.add(driver.getSessionId());
+                utils.log().info("Actions not supported by the session, performing the steps one by one: {}", e.toString());
+            }
+        }
+        for (Step step : steps) {
+            if (step.text != null) {
+                page.clear(step.element);
+                page.sendKeys(step.element, step.text);
+            } else {
+                page.click(step.element);
+            }
+        }
+    }
+
+    private boolean isBatchable() {
+        if (platform != Platform.ANDROID || unsupportedSessions.contains(driver.getSessionId())) {
+            return false;
+        }
+        for (Step step : steps) {
+            if (step.text != null && !step.text.chars().allMatch(c -> c >= 0x20 && c <= 0x7e)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    List<Sequence> compile() {
+        PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
+        KeyInput keyboard = new KeyInput("keyboard");
+        Sequence taps = new Sequence(finger, 0);
+        Sequence keys = new Sequence(keyboard, 0);
+
+        for (Step step : steps) {
+            WebElement element = step.element instanceof WrapsElement
+                    ? ((WrapsElement) step.element).getWrappedElement() : step.element;
+            tick(taps, finger.createPointerMove(Duration.ZERO, PointerInput.Origin.fromElement(element), 0, 0),
+                    keys, keyboard);
+            tick(taps, finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()), keys, keyboard);
+            tick(taps, finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()), keys, keyboard);
+            if (step.text == null) {
+                continue;
+            }
+            taps.addAction(new Pause(finger, FOCUS_DELAY));
+            keys.addAction(new Pause(keyboard, FOCUS_DELAY));
+            List<Interaction> typing = new ArrayList<>(Arrays.asList(
+                    keyboard.createKeyDown(Keys.CONTROL.getCodePoint()), keyboard.createKeyDown('a'),
+                    keyboard.createKeyUp('a'), keyboard.createKeyUp(Keys.CONTROL.getCodePoint())));
+            step.text.chars().forEach(c -> {
+                typing.add(keyboard.createKeyDown(c));
+                typing.add(keyboard.createKeyUp(c));
+            });
+            for (Interaction interaction : typing) {
+                tick(keys, interaction, taps, finger);
+            }
+        }
+        return Arrays.asList(taps, keys);
+    }
+
+    // Every tick holds one action per input source, so the other source pauses
+    private void tick(Sequence acting, Interaction interaction, Sequence idle, InputSource idleSource) {
+        acting.addAction(interaction);
+        idle.addAction(new Pause(idleSource, Duration.ZERO));
+    }
+}
@@ -0,0 +1,10 @@
+package com.qa.pages;
+
+import org.openqa.selenium.By;
+
+/**
+ * Implemented by the page object field proxies, to expose the locator they look their element up with.
+ */
+interface LocatorBacked {
+    By getBy();
+}
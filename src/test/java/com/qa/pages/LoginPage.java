@@ -10,19 +10,19 @@ public class LoginPage extends BasePage {
 
 	@AndroidFindBy (accessibility = "test-Username") 
 	@iOSXCUITFindBy (id = "test-Username")
-	private WebElement usernameTxtFld;
+	WebElement usernameTxtFld;
 
 	@AndroidFindBy (accessibility = "test-Password") 
 	@iOSXCUITFindBy (id = "test-Password")
-	private WebElement passwordTxtFld;
+	WebElement passwordTxtFld;
 	
 	@AndroidFindBy (accessibility = "test-LOGIN") 
 	@iOSXCUITFindBy (id = "test-LOGIN")
-	private WebElement loginBtn;
+	WebElement loginBtn;
 	
 	@AndroidFindBy (xpath = "//android.view.ViewGroup[@content-desc=\"test-Error message\"]/android.widget.TextView") 
 	@iOSXCUITFindBy (xpath = "//XCUIElementTypeOther[@name=\"test-Error message\"]/child::XCUIElementTypeStaticText")
-	private WebElement errTxt;
+	WebElement errTxt;
 
 	public LoginPage(){
 	}
@@ -41,13 +41,15 @@ public LoginPage enterPassword(String password) {
 
 public ProductsPage pressLoginBtn() {
 	click(loginBtn, "press login button");
-	return new ProductsPage();
+	new ScrollIndex().resetPosition();
+	return new PageRegistry().navigate(ProductsPage.class);
 }
 
 public ProductsPage login(String username, String password) throws InterruptedException {
-	enterUserName(username);
-	enterPassword(password);
-	return pressLoginBtn();
+	composite().type(usernameTxtFld, username).type(passwordTxtFld, password).tap(loginBtn)
+			.perform("login with " + username);
+	new ScrollIndex().resetPosition();
+	return new PageRegistry().navigate(ProductsPage.class);
 }
 
 public String getErrTxt() {
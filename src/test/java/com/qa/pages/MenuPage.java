@@ -11,11 +11,11 @@ public class MenuPage extends BasePage{
 	@AndroidFindBy (xpath="//android.view.ViewGroup[@content-desc=\"test-Menu\"]/android.view.ViewGroup/android.widget.ImageView\n" + 
 			"") 
 	@iOSXCUITFindBy (xpath="//XCUIElementTypeOther[@name=\"test-Menu\"]/XCUIElementTypeOther")
-	private WebElement settingsBtn;
+	WebElement settingsBtn;
 	
 	public SettingsPage pressSettingsBtn() {
 		click(settingsBtn, "press Settings button");
-		return new SettingsPage();
+		return new PageRegistry().navigate(SettingsPage.class);
 	}
 
 }
@@ -0,0 +1,21 @@
+package com.qa.pages;
+
+import io.appium.java_client.AppiumDriver;
+
+/**
+ * A PageBinder wires the WebElement fields of one page class on one platform, with the locators resolved at
+ * compile time. Binders are generated by the PageBinderProcessor as &lt;Page&gt;AndroidBinder and
+ * &lt;Page&gt;IOSBinder, and looked up by the PageMetadataCache. Binders assign the fields directly, so the
+ * element fields of the pages are package-private rather than private.
+ *
+ * @param <T> the page class
+ */
+public interface PageBinder<T> {
+    /**
+     * Assigns an element proxy to every WebElement field of the page.
+     *
+     * @param page the page object to wire
+     * @param driver the driver the elements are looked up with
+     */
+    void bind(T page, AppiumDriver driver);
+}
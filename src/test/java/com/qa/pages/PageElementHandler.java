@@ -0,0 +1,87 @@
+package com.qa.pages;
+
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Looks up the element behind a page object field proxy when one of its methods is called, and delegates
+ * the call to it.
+ *
+ * The resolved element is kept for the navigation epoch of the PageRegistry it was found in, so consecutive
+ * actions on the same field (wait, clear, wait, send keys) cost a single lookup. A call failing with a
+ * StaleElementReferenceException on a kept element is retried once on a freshly looked up element.
+ */
+class PageElementHandler implements InvocationHandler {
+    private final AppiumDriver driver;
+    private final By by;
+    private final String description;
+    private WebElement element;
+    private long epoch;
+
+    PageElementHandler(AppiumDriver driver, By by, String description) {
+        this.driver = driver;
+        this.by = by;
+        this.description = description;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "toString":
+                if (method.getParameterCount() == 0) {
+                    return description + " (" + by + ")";
+                }
+                break;
+            case "equals":
+                if (method.getParameterCount() == 1) {
+                    return proxy == args[0];
+                }
+                break;
+            case "hashCode":
+                if (method.getParameterCount() == 0) {
+                    return System.identityHashCode(proxy);
+                }
+                break;
+            case "getWrappedElement":
+                return locate();
+            case "getBy":
+                return by;
+        }
+
+        boolean reused = isCached();
+        try {
+            return method.invoke(locate(), args);
+        } catch (InvocationTargetException e) {
+            if (!reused || !(e.getCause() instanceof StaleElementReferenceException)) {
+                throw e.getCause();
+            }
+        }
+        element = null;
+        try {
+            return method.invoke(locate(), args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private boolean isCached() {
+        return element != null && epoch == PageRegistry.getEpoch();
+    }
+
+    private WebElement locate() {
+        if (isCached()) {
+            PageRegistry.recordElementLookup(true);
+            return element;
+        }
+        element = driver.findElement(by);
+        epoch = PageRegistry.getEpoch();
+        PageRegistry.recordElementLookup(false);
+        return element;
+    }
+}
@@ -0,0 +1,181 @@
+package com.qa.pages;
+
+import com.qa.utils.Platform;
+import com.qa.utils.TestUtils;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.pagefactory.AndroidFindBy;
+import io.appium.java_client.pagefactory.DefaultElementByBuilder;
+import io.appium.java_client.pagefactory.bys.builder.HowToUseSelectors;
+import io.appium.java_client.pagefactory.iOSXCUITFindBy;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The PageMetadataCache class wires the WebElement fields of page objects from a plan that is built once per
+ * page class and platform, instead of scanning the annotations with PageFactory on every page construction.
+ *
+ * The plan holds the accessible fields and the native locator resolved from their {@code @AndroidFindBy} or
+ * {@code @iOSXCUITFindBy} annotation, using the same rules as the AppiumFieldDecorator. Wiring a page only
+ * assigns a lightweight proxy per field, which looks the element up when it is first used and keeps it until
+ * the next navigation.
+ *
+ * Pages compiled with the PageBinderProcessor are wired by their generated PageBinder instead, which has the
+ * locators baked in and assigns the fields directly. The plan remains the fallback for pages without a binder,
+ * and the source of the locators for the LocatorAudit.
+ */
+public class PageMetadataCache {
+    private static final Map<Class<?>, Map<String, List<BoundField>>> plans = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Map<Platform, Optional<PageBinder<Object>>>> binders = new ConcurrentHashMap<>();
+    private static final Class<?>[] PROXY_INTERFACES = {WebElement.class, WrapsElement.class, Locatable.class,
+            LocatorBacked.class};
+
+    TestUtils utils = new TestUtils();
+
+    /**
+     * Resolves the native locator of a field the way the AppiumFieldDecorator does, without wrapping it in a
+     * ContentMappedBy that would query the driver context on every lookup.
+     *
+     * A field with a single locator annotation gets that locator itself rather than a chain of one: ByChained
+     * always goes through findElements, and its locator is not remotable, so page snapshots could not evaluate it.
+     */
+    private static final class NativeByBuilder extends DefaultElementByBuilder {
+        private final Class<? extends Annotation> annotation;
+
+        private NativeByBuilder(String platform, String automation, Class<? extends Annotation> annotation) {
+            super(platform, automation);
+            this.annotation = annotation;
+        }
+
+        private By buildNativeBy(Field field) {
+            assertValidAnnotations();
+            Annotation[] annotations = field.getAnnotationsByType(annotation);
+            By by = annotations.length == 1 ? createBy(annotations, HowToUseSelectors.USE_ONE) : buildMobileNativeBy();
+            if (by == null) {
+                by = buildDefaultBy();
+            }
+            return by != null ? by : By.id(field.getName());
+        }
+    }
+
+    static final class BoundField {
+        final Field field;
+        final By by;
+
+        private BoundField(Field field, By by) {
+            this.field = field;
+            this.by = by;
+        }
+    }
+
+    /**
+     * Assigns an element proxy to every WebElement field of the page, for the given platform, with the generated
+     * binder of the page class if there is one.
+     *
+     * @param page the page object to wire
+     * @param driver the driver the elements are looked up with
+     * @param platform the platform the page is used on
+     */
+    public void initElements(Object page, AppiumDriver driver, Platform platform) {
+        Optional<PageBinder<Object>> binder = getBinder(page.getClass(), platform);
+        if (binder.isPresent()) {
+            binder.get().bind(page, driver);
+            return;
+        }
+        for (BoundField boundField : getPlan(page.getClass(), platform.getPlatformName())) {
+            try {
+                boundField.field.set(page, newElementProxy(driver, boundField.by, boundField.field.getDeclaringClass()
+                        .getSimpleName() + "." + boundField.field.getName()));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Failed to wire " + boundField.field, e);
+            }
+        }
+    }
+
+    /**
+     * Creates the proxy assigned to a WebElement field, which looks the element up when it is first used.
+     *
+     * @param driver the driver the element is looked up with
+     * @param by the locator of the element
+     * @param description the field, as DeclaringClass.field
+     * @return the element proxy
+     */
+    public static WebElement newElementProxy(AppiumDriver driver, By by, String description) {
+        return (WebElement) Proxy.newProxyInstance(PageMetadataCache.class.getClassLoader(), PROXY_INTERFACES,
+                new PageElementHandler(driver, by, description));
+    }
+
+    /**
+     * Returns the locators of the WebElement fields of a page that are annotated for the given platform, as
+     * they are used by {@link #initElements(Object, AppiumDriver, Platform)}.
+     *
+     * @param pageClass the page class
+     * @param platformName the platform name, Android or iOS
+     * @return the locator of every annotated field, in declaration order from the page class up
+     */
+    public Map<Field, By> getLocators(Class<?> pageClass, String platformName) {
+        Class<? extends Annotation> annotation = "iOS".equals(platformName) ? iOSXCUITFindBy.class : AndroidFindBy.class;
+        Map<Field, By> locators = new LinkedHashMap<>();
+        for (BoundField boundField : getPlan(pageClass, platformName)) {
+            if (boundField.field.isAnnotationPresent(annotation)) {
+                locators.put(boundField.field, boundField.by);
+            }
+        }
+        return locators;
+    }
+
+    List<BoundField> getPlan(Class<?> pageClass, String platformName) {
+        return plans.computeIfAbsent(pageClass, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(platformName, k -> buildPlan(pageClass, platformName));
+    }
+
+    private List<BoundField> buildPlan(Class<?> pageClass, String platformName) {
+        String automation = "iOS".equals(platformName) ? "XCUITest" : "UiAutomator2";
+        Class<? extends Annotation> annotation = "iOS".equals(platformName) ? iOSXCUITFindBy.class : AndroidFindBy.class;
+        List<BoundField> plan = new ArrayList<>();
+        for (Class<?> c = pageClass; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.getType() != WebElement.class) {
+                    continue;
+                }
+                NativeByBuilder builder = new NativeByBuilder(platformName, automation, annotation);
+                builder.setAnnotated(field);
+                field.setAccessible(true);
+                plan.add(new BoundField(field, builder.buildNativeBy(field)));
+            }
+        }
+        utils.log().info("Page plan built for " + pageClass.getSimpleName() + " on " + platformName + ": "
+                + plan.size() + " element(s)");
+        return Collections.unmodifiableList(plan);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Optional<PageBinder<Object>> getBinder(Class<?> pageClass, Platform platform) {
+        return binders.computeIfAbsent(pageClass, k -> new ConcurrentHashMap<>()).computeIfAbsent(platform, k -> {
+            String binderName = pageClass.getName() + (platform == Platform.IOS ? "IOSBinder" : "AndroidBinder");
+            try {
+                Class<?> binderClass = Class.forName(binderName, true, pageClass.getClassLoader());
+                return Optional.of((PageBinder<Object>) binderClass.getDeclaredConstructor().newInstance());
+            } catch (ClassNotFoundException e) {
+                utils.log().info("No page binder for " + pageClass.getSimpleName() + " on "
+                        + platform.getPlatformName() + ", wiring its elements by reflection");
+                return Optional.empty();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Failed to create " + binderName, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,122 @@
+package com.qa.pages;
+
+import com.qa.utils.TestUtils;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The PageRegistry class hands out the page objects of the running scenario, so that consecutive steps on the
+ * same screen reuse one page instance instead of constructing a new page for every step.
+ *
+ * Pages are scoped to the scenario of the current thread: the PageObjectFactory begins a new scope when a
+ * scenario starts and ends it when the scenario finishes, logging how many pages were constructed. Navigation
+ * methods that move to another screen invalidate the pages of the scope through {@link #navigate(Class)}.
+ *
+ * Every invalidation also starts a new navigation epoch. Element proxies keep the element they resolved only
+ * within the epoch it was resolved in, so no element handle survives a navigation, a relaunch or a reset.
+ */
+public class PageRegistry {
+    private static final ThreadLocal<Scope> scope = ThreadLocal.withInitial(Scope::new);
+    private static final AtomicLong epochs = new AtomicLong();
+
+    TestUtils utils = new TestUtils();
+
+    private static final class Scope {
+        private final Map<Class<?>, BasePage> pages = new HashMap<>();
+        private final Map<String, Integer> constructions = new TreeMap<>();
+        private int requests;
+        private long epoch = epochs.incrementAndGet();
+        private int lookups;
+        private int reuses;
+    }
+
+    /**
+     * Returns the page of the given type for the running scenario, constructing it on first use.
+     *
+     * @param type the page class
+     * @param <T> the page type
+     * @return the page instance of the scenario
+     */
+    public <T extends BasePage> T get(Class<T> type) {
+        Scope current = scope.get();
+        current.requests++;
+        BasePage page = current.pages.get(type);
+        if (page == null) {
+            page = construct(type);
+            current.pages.put(type, page);
+            current.constructions.merge(type.getSimpleName(), 1, Integer::sum);
+        }
+        return type.cast(page);
+    }
+
+    /**
+     * Invalidates the pages of the running scenario after moving to another screen, and returns the page of
+     * the screen that was navigated to.
+     *
+     * @param type the class of the page navigated to
+     * @param <T> the page type
+     * @return a fresh page instance for the new screen
+     */
+    public <T extends BasePage> T navigate(Class<T> type) {
+        invalidate();
+        return get(type);
+    }
+
+    /**
+     * Drops every page of the running scenario, e.g. after the app was reset.
+     */
+    public void invalidate() {
+        Scope current = scope.get();
+        current.pages.clear();
+        current.epoch = epochs.incrementAndGet();
+    }
+
+    /**
+     * Starts a new scope for the scenario about to run on the current thread.
+     */
+    public void begin() {
+        scope.set(new Scope());
+    }
+
+    /**
+     * Ends the scope of the scenario of the current thread and logs its page construction counts.
+     */
+    public void end() {
+        Scope current = scope.get();
+        int constructed = current.constructions.values().stream().mapToInt(Integer::intValue).sum();
+        utils.log().info("Pages constructed in scenario: " + constructed + " for " + current.requests
+                + " request(s) " + current.constructions + ", element lookups: " + current.lookups + ", reuses: "
+                + current.reuses);
+        scope.remove();
+    }
+
+    static long getEpoch() {
+        return scope.get().epoch;
+    }
+
+    static void recordElementLookup(boolean reused) {
+        Scope current = scope.get();
+        if (reused) {
+            current.reuses++;
+        } else {
+            current.lookups++;
+        }
+    }
+
+    private BasePage construct(Class<? extends BasePage> type) {
+        try {
+            return type.getDeclaredConstructor().newInstance();
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Failed to construct " + type.getSimpleName(), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to construct " + type.getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.qa.pages;
+
+import com.qa.utils.TestUtils;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.By;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The PageSnapshot class holds the page source of the current screen, parsed once into an indexed tree, so that
+ * several reads on the same screen cost a single {@code getPageSource()} round trip.
+ *
+ * XPath, id, accessibility id and simple NSPredicate lookups (comparisons with ==, CONTAINS or BEGINSWITH joined
+ * by AND) are evaluated locally. A snapshot is taken for the current thread and stays active until the next
+ * mutating action (click, clear, send keys, scroll) or navigation epoch of the PageRegistry.
+ */
+public class PageSnapshot {
+    private static final ThreadLocal<PageSnapshot> current = new ThreadLocal<>();
+    // Compiled expressions are not thread-safe, so every device thread keeps its own
+    private static final ThreadLocal<Map<String, XPathExpression>> expressions = ThreadLocal.withInitial(HashMap::new);
+    private static final Pattern PREDICATE = Pattern.compile(
+            "\\s*(\\w+)\\s*(==|CONTAINS|BEGINSWITH)\\s*(?:'([^']*)'|\"([^\"]*)\")\\s*");
+
+    private final Document document;
+    private final long epoch;
+    private final String accessibilityAttribute;
+    private final String idAttribute;
+    private final String textAttribute;
+    private final Map<String, List<Element>> byAccessibilityId = new HashMap<>();
+
+    static TestUtils utils = new TestUtils();
+
+    private PageSnapshot(Document document, long epoch, String platformName) {
+        this.document = document;
+        this.epoch = epoch;
+        this.accessibilityAttribute = "iOS".equals(platformName) ? "name" : "content-desc";
+        this.idAttribute = "iOS".equals(platformName) ? "name" : "resource-id";
+        this.textAttribute = "iOS".equals(platformName) ? "label" : "text";
+        NodeList nodes = document.getElementsByTagName("*");
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Element element = (Element) nodes.item(i);
+            if (element.hasAttribute(accessibilityAttribute)) {
+                byAccessibilityId.computeIfAbsent(element.getAttribute(accessibilityAttribute),
+                        k -> new ArrayList<>()).add(element);
+            }
+        }
+    }
+
+    /**
+     * Fetches and parses the page source, and makes it the active snapshot of the current thread.
+     *
+     * @param driver the driver of the current thread
+     * @param platformName the platform name, Android or iOS
+     * @return the new snapshot
+     */
+    public static PageSnapshot capture(AppiumDriver driver, String platformName) {
+        long start = System.nanoTime();
+        PageSnapshot snapshot = parse(driver.getPageSource(), platformName);
+        current.set(snapshot);
+        snapshot.utils.log().debug("Page snapshot taken in {} ms", (System.nanoTime() - start) / 1_000_000);
+        return snapshot;
+    }
+
+    /**
+     * Parses a page source without making it the active snapshot, e.g. a page source recorded earlier.
+     *
+     * @param source the page source XML
+     * @param platformName the platform name, Android or iOS
+     * @return the parsed snapshot
+     */
+    public static PageSnapshot parse(String source, String platformName) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setExpandEntityReferences(false);
+            Document document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(source)));
+            return new PageSnapshot(document, PageRegistry.getEpoch(), platformName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to parse the page source", e);
+        }
+    }
+
+    /**
+     * @return the active snapshot of the current thread, or null if none was taken since the last mutating
+     * action or navigation
+     */
+    public static PageSnapshot active() {
+        PageSnapshot snapshot = current.get();
+        if (snapshot != null && snapshot.epoch != PageRegistry.getEpoch()) {
+            current.remove();
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Drops the active snapshot of the current thread, after an action that may have changed the screen.
+     */
+    public static void invalidate() {
+        current.remove();
+    }
+
+    /**
+     * Checks whether a locator can be evaluated against the snapshot.
+     *
+     * @param by the locator
+     * @return true if {@link #findElements(By)} can evaluate the locator
+     */
+    public boolean supports(By by) {
+        if (!(by instanceof By.Remotable)) {
+            return false;
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) by).getRemoteParameters();
+        switch (parameters.using()) {
+            case "xpath":
+            case "id":
+            case "accessibility id":
+                return true;
+            case "-ios predicate string":
+                return parsePredicate(String.valueOf(parameters.value())) != null;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Finds the elements matching a supported locator in the snapshot.
+     *
+     * @param by the locator
+     * @return the matching elements, in document order
+     * @throws IllegalArgumentException if the locator is not supported
+     */
+    public List<Element> findElements(By by) {
+        if (!supports(by)) {
+            throw new IllegalArgumentException("Locator not supported by page snapshots: " + by);
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) by).getRemoteParameters();
+        String value = String.valueOf(parameters.value());
+        switch (parameters.using()) {
+            case "xpath":
+                return evaluate(value);
+            case "accessibility id":
+                return byAccessibilityId.getOrDefault(value, Collections.emptyList());
+            case "id":
+                return matching(Collections.singletonList(new String[]{idAttribute, "==", value}));
+            default:
+                return matching(parsePredicate(value));
+        }
+    }
+
+    /**
+     * Finds the first element matching a supported locator in the snapshot.
+     *
+     * @param by the locator
+     * @return the first matching element, or null if there is none
+     */
+    public Element findElement(By by) {
+        List<Element> elements = findElements(by);
+        return elements.isEmpty() ? null : elements.get(0);
+    }
+
+    /**
+     * @param accessibilityId the accessibility id (content-desc on Android, name on iOS)
+     * @return the elements with the given accessibility id, in document order
+     */
+    public List<Element> findByAccessibilityId(String accessibilityId) {
+        return byAccessibilityId.getOrDefault(accessibilityId, Collections.emptyList());
+    }
+
+    /**
+     * @param parent an element of the snapshot
+     * @param accessibilityId the accessibility id (content-desc on Android, name on iOS)
+     * @return the first descendant of the element with the given accessibility id, or null if there is none
+     */
+    public Element findDescendantByAccessibilityId(Element parent, String accessibilityId) {
+        NodeList nodes = parent.getElementsByTagName("*");
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Element element = (Element) nodes.item(i);
+            if (accessibilityId.equals(element.getAttribute(accessibilityAttribute))) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param element an element of the snapshot
+     * @return the text of the element (text on Android, label on iOS)
+     */
+    public String getText(Element element) {
+        return element.getAttribute(textAttribute);
+    }
+
+    private List<Element> evaluate(String xpath) {
+        try {
+            XPathExpression expression = expressions.get().computeIfAbsent(xpath.trim(), k -> {
+                try {
+                    return XPathFactory.newInstance().newXPath().compile(k);
+                } catch (XPathExpressionException e) {
+                    throw new IllegalArgumentException("Invalid xpath: " + k, e);
+                }
+            });
+            NodeList nodes = (NodeList) expression.evaluate(document, XPathConstants.NODESET);
+            List<Element> elements = new ArrayList<>(nodes.getLength());
+            for (int i = 0; i < nodes.getLength(); i++) {
+                elements.add((Element) nodes.item(i));
+            }
+            return elements;
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("Failed to evaluate xpath: " + xpath, e);
+        }
+    }
+
+    private List<Element> matching(List<String[]> conditions) {
+        List<Element> elements = new ArrayList<>();
+        NodeList nodes = document.getElementsByTagName("*");
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Element element = (Element) nodes.item(i);
+            boolean matches = true;
+            for (String[] condition : conditions) {
+                matches &= matches(element.getAttribute(condition[0]), condition[1], condition[2]);
+            }
+            if (matches) {
+                elements.add(element);
+            }
+        }
+        return elements;
+    }
+
+    private boolean matches(String actual, String operator, String expected) {
+        switch (operator) {
+            case "==":
+                // Android resource ids may be given without their package prefix
+                return actual.equals(expected) || actual.endsWith(":id/" + expected);
+            case "CONTAINS":
+                return actual.contains(expected);
+            default:
+                return actual.startsWith(expected);
+        }
+    }
+
+    private List<String[]> parsePredicate(String predicate) {
+        List<String[]> conditions = new ArrayList<>();
+        for (String part : predicate.split("(?i)\\s+AND\\s+")) {
+            Matcher matcher = PREDICATE.matcher(part);
+            if (!matcher.matches()) {
+                return null;
+            }
+            String value = matcher.group(3) != null ? matcher.group(3) : matcher.group(4);
+            conditions.add(new String[]{matcher.group(1), matcher.group(2), value});
+        }
+        return conditions;
+    }
+}
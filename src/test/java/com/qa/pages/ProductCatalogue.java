@@ -0,0 +1,111 @@
+package com.qa.pages;
+
+import org.openqa.selenium.remote.SessionId;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The ProductCatalogue class is an immutable model of the products listed on the Products page, as crawled once
+ * per driver session by {@link ProductsPage#getCatalogue()}. Products are looked up by title, ignoring case.
+ */
+public final class ProductCatalogue {
+    private static final Map<SessionId, ProductCatalogue> catalogues = new ConcurrentHashMap<>();
+
+    private final List<Product> products;
+    private final Map<String, Product> byTitle;
+
+    public static final class Product {
+        private final String title;
+        private final String price;
+        private final int position;
+
+        public Product(String title, String price, int position) {
+            this.title = title;
+            this.price = price;
+            this.position = position;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getPrice() {
+            return price;
+        }
+
+        /**
+         * @return the position of the product in the list, starting at 0
+         */
+        public int getPosition() {
+            return position;
+        }
+
+        @Override
+        public String toString() {
+            return position + ": " + title + " " + price;
+        }
+    }
+
+    public ProductCatalogue(List<Product> products) {
+        this.products = List.copyOf(products);
+        Map<String, Product> index = new LinkedHashMap<>();
+        for (Product product : this.products) {
+            index.putIfAbsent(product.getTitle().toLowerCase(Locale.ROOT), product);
+        }
+        this.byTitle = Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Returns the catalogue of a driver session, crawling it on first use. The crawl scrolls through the list on
+     * the device, so it runs outside the map; a session is only used by one thread at a time.
+     *
+     * @param sessionId the driver session
+     * @param crawler crawls the catalogue if the session has none yet
+     * @return the catalogue of the session
+     */
+    static ProductCatalogue forSession(SessionId sessionId, Supplier<ProductCatalogue> crawler) {
+        ProductCatalogue catalogue = catalogues.get(sessionId);
+        if (catalogue == null) {
+            catalogue = crawler.get();
+            ProductCatalogue existing = catalogues.putIfAbsent(sessionId, catalogue);
+            if (existing != null) {
+                catalogue = existing;
+            }
+        }
+        return catalogue;
+    }
+
+    /**
+     * Drops the catalogue of a driver session that is quit.
+     *
+     * @param sessionId the driver session, or null if it has none
+     */
+    public static void sessionEnded(SessionId sessionId) {
+        if (sessionId != null) {
+            catalogues.remove(sessionId);
+        }
+    }
+
+    /**
+     * @param title the product title, in any case
+     * @return the product with the given title, or null if it is not listed
+     */
+    public Product find(String title) {
+        return byTitle.get(title.toLowerCase(Locale.ROOT));
+    }
+
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    @Override
+    public String toString() {
+        return products.toString();
+    }
+}
@@ -1,6 +1,5 @@
 package com.qa.pages;
 
-import com.qa.utils.GlobalParams;
 import com.qa.utils.TestUtils;
 import io.appium.java_client.pagefactory.AndroidFindBy;
 import io.appium.java_client.pagefactory.iOSXCUITFindBy;
@@ -12,21 +11,26 @@ public class ProductDetailsPage extends MenuPage {
 	@AndroidFindBy (xpath = "//android.view.ViewGroup[@content-desc=\"test-Description\"]/android.widget.TextView[1]\n" + 
 			"") 
 	@iOSXCUITFindBy (xpath = "//XCUIElementTypeOther[@name=\"test-Description\"]/child::XCUIElementTypeStaticText[1]")
-	private WebElement title;
+	WebElement title;
 	
 	@AndroidFindBy (xpath = "//android.view.ViewGroup[@content-desc=\"test-Description\"]/android.widget.TextView[2]"
 			+ "") 
 	@iOSXCUITFindBy (xpath = "//XCUIElementTypeOther[@name=\"test-Description\"]/child::XCUIElementTypeStaticText[2]")
-	private WebElement desc;
+	WebElement desc;
 
 	@AndroidFindBy (accessibility = "test-BACK TO PRODUCTS") 
 	@iOSXCUITFindBy (id = "test-BACK TO PRODUCTS")
-	private WebElement backToProductsBtn;
+	WebElement backToProductsBtn;
 
 	@iOSXCUITFindBy (id = "test-Price")
-	private WebElement iOSProductPrice;
+	WebElement iOSProductPrice;
 
-	@iOSXCUITFindBy (id = "test-ADD TO CART") private WebElement addToCartBtn;
+	@iOSXCUITFindBy (id = "test-ADD TO CART") WebElement addToCartBtn;
+
+public ProductDetailsPage snapshot() {
+	takeSnapshot(title);
+	return this;
+}
 
 public String getTitle() {
 	return getText(title, "title is: ");
@@ -37,10 +41,10 @@ public String getDesc() {
 }
 
 public String getPrice() throws Exception {
-	switch(new GlobalParams().getPlatformName()){
-		case "Android":
+	switch(platform){
+		case ANDROID:
 			return getText(andScrollToElementUsingUiScrollable("description", "test-Price"), "price is: ");
-		case "iOS":
+		case IOS:
 			return getText(iOSScrollToElementUsingMobileScroll(iOSProductPrice), "price is: ");
 		default:
 			throw new Exception("Invalid platform name");
@@ -53,7 +57,7 @@ public Boolean isAddToCartBtnDisplayed() {
 
 public ProductsPage pressBackToProductsBtn() {
 	click(backToProductsBtn, "navigate back to products page");
-	return new ProductsPage();
+	return new PageRegistry().navigate(ProductsPage.class);
 }
 
 }
@@ -1,44 +1,90 @@
 package com.qa.pages;
 
-import com.qa.utils.GlobalParams;
+import com.qa.utils.DriverManager;
+import com.qa.utils.Platform;
 import com.qa.utils.TestUtils;
 import io.appium.java_client.pagefactory.AndroidFindBy;
 import io.appium.java_client.pagefactory.iOSXCUITFindBy;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebElement;
+import org.w3c.dom.Element;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class ProductsPage extends MenuPage {
+	private static final int MAX_CRAWL_STEPS = 30;
+
 	TestUtils utils = new TestUtils();
 	
 //	@AndroidFindBy (xpath = "//android.widget.ScrollView[@content-desc=\"test-PRODUCTS\"]/preceding-sibling::android.view.ViewGroup/android.widget.TextView")
 	@AndroidFindBy (xpath = "//android.widget.TextView[@text='PRODUCTS']")
 	@iOSXCUITFindBy (xpath ="//XCUIElementTypeOther[@name=\"test-Toggle\"]/parent::*[1]/preceding-sibling::*[1]")
-	private WebElement titleTxt;
+	WebElement titleTxt;
 
 	@iOSXCUITFindBy (xpath = "//XCUIElementTypeOther[@name=\"test-PRODUCTS\"]/XCUIElementTypeScrollView")
-	private WebElement iOSSCrollView;
+	WebElement iOSSCrollView;
 
 	public String getTitle() {
 		return getText(titleTxt, "product page title is - ");
 	}
 
 	public String getProductTitle(String title) throws Exception {
-		switch(new GlobalParams().getPlatformName()){
-			case "Android":
-				return getText(andScrollToElementUsingUiScrollable("text", title), "product title is: " + title);
-			case "iOS":
-				return getText(iOSScrollToElementUsingMobileScrollParent(iOSSCrollView, "label == '"+ title +"'"),
-						"product title is: " + title);
+		switch(platform){
+			case ANDROID:
+				return getText(new ScrollIndex().scrollTo(title, null), "product title is: " + title);
+			case IOS:
+				return getText(new ScrollIndex().scrollTo(title, iOSSCrollView), "product title is: " + title);
 			default:
 				throw new Exception("Invalid platform name");
 		}
 	}
 
+	/**
+	 * Returns the catalogue of the listed products, crawled once per driver session: the list is scrolled from
+	 * the top to the end once, reading the title and price of every item from one page snapshot per step.
+	 */
+	public ProductCatalogue getCatalogue() {
+		return ProductCatalogue.forSession(new DriverManager().getDriver().getSessionId(), this::crawlCatalogue);
+	}
+
+	private ProductCatalogue crawlCatalogue() {
+		waitForVisibility(titleTxt);
+		ScrollIndex scrollIndex = new ScrollIndex();
+		WebElement scrollView = platform == Platform.IOS ? iOSSCrollView : null;
+		scrollIndex.scrollToTop(scrollView);
+
+		Map<String, ProductCatalogue.Product> products = new LinkedHashMap<>();
+		int idleSteps = 0;
+		for (int step = 0; step < MAX_CRAWL_STEPS && idleSteps < 2; step++) {
+			PageSnapshot snapshot = takeSnapshot();
+			int found = products.size();
+			for (Element item : snapshot.findByAccessibilityId("test-Item")) {
+				Element title = snapshot.findDescendantByAccessibilityId(item, "test-Item title");
+				Element price = snapshot.findDescendantByAccessibilityId(item, "test-Price");
+				// Items cut off at the edge of the screen are read again after the next step
+				if (title != null && price != null && !products.containsKey(snapshot.getText(title))) {
+					String text = snapshot.getText(title);
+					products.put(text, new ProductCatalogue.Product(text, snapshot.getText(price), products.size()));
+					scrollIndex.recordPosition(text);
+				}
+			}
+			idleSteps = products.size() == found ? idleSteps + 1 : 0;
+			if (!scrollIndex.scrollStep("down", scrollView)) {
+				idleSteps++;
+			}
+		}
+		ProductCatalogue catalogue = new ProductCatalogue(new ArrayList<>(products.values()));
+		utils.log().info("Product catalogue crawled: {}", catalogue);
+		return catalogue;
+	}
+
 	public By defProductPrice(String title) throws Exception {
-		switch(new GlobalParams().getPlatformName()){
-			case "Android":
+		switch(platform){
+			case ANDROID:
 				return By.xpath("//*[@text=\"" + title + "\"]/following-sibling::*[@content-desc=\"test-Price\"]");
-			case "iOS":
+			case IOS:
 				return By.xpath("//XCUIElementTypeOther[@name=\"" + title + "\"]/following-sibling::*[1]/child::XCUIElementTypeStaticText[@name=\"test-Price\"]");
 			default:
 				throw new Exception("Invalid platform name");
@@ -50,13 +96,13 @@ public class ProductsPage extends MenuPage {
 	}*/
 
 	public ProductDetailsPage pressProductTitle(String title) throws Exception {
-		switch(new GlobalParams().getPlatformName()){
-			case "Android":
-				click(andScrollToElementUsingUiScrollable("text", title), "press " + title + " link");
-				return new ProductDetailsPage();
-			case "iOS":
-				click(iOSScrollToElementUsingMobileScrollParent(iOSSCrollView, "label == '"+ title +"'"), "press " + title + " link");
-				return new ProductDetailsPage();
+		switch(platform){
+			case ANDROID:
+				click(new ScrollIndex().scrollTo(title, null), "press " + title + " link");
+				return new PageRegistry().navigate(ProductDetailsPage.class);
+			case IOS:
+				click(new ScrollIndex().scrollTo(title, iOSSCrollView), "press " + title + " link");
+				return new PageRegistry().navigate(ProductDetailsPage.class);
 			default:
 				throw new Exception("Invalid platform name");
 		}
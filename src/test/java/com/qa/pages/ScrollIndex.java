@@ -0,0 +1,229 @@
+package com.qa.pages;
+
+import com.qa.utils.DriverManager;
+import com.qa.utils.GlobalParams;
+import com.qa.utils.TestUtils;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.remote.RemoteWebElement;
+import org.openqa.selenium.remote.SessionId;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ScrollIndex class scrolls a list to an item by its text, remembering for the driver session at which scroll
+ * step every item was found and at which step the list currently is.
+ *
+ * An item found before is reached by scrolling straight to its step, in the right direction, without checking the
+ * screen on the way. An unknown item is searched from the current step downwards first, then upwards, instead of
+ * from the top of the list. Checking several items of a list in order therefore scrolls through it about once,
+ * where a UiScrollable search scrolls back to the top for every item.
+ *
+ * The current step is reset to the top when the list is shown anew, i.e. after login or an app reset.
+ *
+ * On Android, scrollGesture reports whether the list can scroll further, and the scrollable view is looked up once
+ * per list. On iOS, mobile: scroll reports nothing, so the end of the list is detected when the visible texts of
+ * the scroll view are the same elements before and after a scroll.
+ */
+public class ScrollIndex {
+    private static final ThreadLocal<State> states = new ThreadLocal<>();
+    private static final int MAX_SEARCH_STEPS = 20;
+    private static final By IOS_VISIBLE_TEXTS = AppiumBy.iOSClassChain("**/XCUIElementTypeStaticText[`visible == 1`]");
+
+    static TestUtils utils = new TestUtils();
+
+    private static final class State {
+        private final SessionId sessionId;
+        private final Map<String, Integer> positions = new HashMap<>();
+        private int position;
+        // The scrollable view on Android, and the ids of the visible texts at the current step on iOS
+        private WebElement scrollable;
+        private List<String> visibleIds;
+
+        private State(SessionId sessionId) {
+            this.sessionId = sessionId;
+        }
+    }
+
+    /**
+     * Scrolls the list until the item with the given text is on screen.
+     *
+     * @param text the text (Android) or label (iOS) of the item
+     * @param scrollView the scroll view holding the list on iOS; on Android the first scrollable view is used
+     * @return the element of the item
+     * @throws NoSuchElementException if the item is not in the list
+     */
+    public WebElement scrollTo(String text, WebElement scrollView) {
+        AppiumDriver driver = new DriverManager().getDriver();
+        boolean iOS = "iOS".equals(new GlobalParams().getPlatformName());
+        State state = getState(driver);
+        By by = iOS ? AppiumBy.iOSNsPredicateString("label == '" + text + "'")
+                : AppiumBy.androidUIAutomator("new UiSelector().text(\"" + text + "\")");
+        int start = state.position;
+
+        Integer known = state.positions.get(text);
+        while (known != null && state.position != known) {
+            if (!scroll(driver, iOS, scrollView, known > state.position ? "down" : "up", state)) {
+                break;
+            }
+        }
+        WebElement element = findVisible(driver, by);
+        if (element == null) {
+            element = search(driver, iOS, scrollView, by, "down", state);
+        }
+        if (element == null) {
+            element = search(driver, iOS, scrollView, by, "up", state);
+        }
+        if (element == null) {
+            throw new NoSuchElementException("Item not found in the list: " + text);
+        }
+
+        state.positions.put(text, state.position);
+        utils.log().debug("Scrolled from step {} to step {} for {}{}", start, state.position, text,
+                known != null ? " (known)" : "");
+        return element;
+    }
+
+    /**
+     * Scrolls the list by one step.
+     *
+     * @param direction up or down
+     * @param scrollView the scroll view holding the list on iOS; on Android the first scrollable view is used
+     * @return false if the list is known to be at its end in that direction
+     */
+    public boolean scrollStep(String direction, WebElement scrollView) {
+        AppiumDriver driver = new DriverManager().getDriver();
+        return scroll(driver, "iOS".equals(new GlobalParams().getPlatformName()), scrollView, direction,
+                getState(driver));
+    }
+
+    /**
+     * Scrolls the list back to its top, from the current step.
+     *
+     * @param scrollView the scroll view holding the list on iOS; on Android the first scrollable view is used
+     */
+    public void scrollToTop(WebElement scrollView) {
+        AppiumDriver driver = new DriverManager().getDriver();
+        boolean iOS = "iOS".equals(new GlobalParams().getPlatformName());
+        State state = getState(driver);
+        for (int i = 0; i < MAX_SEARCH_STEPS && (state.position > 0 || !iOS); i++) {
+            if (!scroll(driver, iOS, scrollView, "up", state)) {
+                break;
+            }
+        }
+        state.position = 0;
+    }
+
+    /**
+     * Records that the item with the given text is on screen at the current step.
+     *
+     * @param text the text (Android) or label (iOS) of the item
+     */
+    public void recordPosition(String text) {
+        State state = getState(new DriverManager().getDriver());
+        state.positions.putIfAbsent(text, state.position);
+    }
+
+    /**
+     * Marks the list as scrolled to the top, after it was shown anew.
+     */
+    public void resetPosition() {
+        State state = states.get();
+        if (state != null) {
+            state.position = 0;
+            state.scrollable = null;
+            state.visibleIds = null;
+        }
+    }
+
+    private WebElement search(AppiumDriver driver, boolean iOS, WebElement scrollView, By by, String direction,
+                              State state) {
+        for (int i = 0; i < MAX_SEARCH_STEPS; i++) {
+            boolean canScrollMore = scroll(driver, iOS, scrollView, direction, state);
+            WebElement element = findVisible(driver, by);
+            if (element != null) {
+                return element;
+            }
+            if (!canScrollMore) {
+                break;
+            }
+        }
+        if ("up".equals(direction)) {
+            state.position = 0;
+        }
+        return null;
+    }
+
+    private boolean scroll(AppiumDriver driver, boolean iOS, WebElement scrollView, String direction, State state) {
+        PageSnapshot.invalidate();
+        Map<String, Object> args = new HashMap<>();
+        args.put("direction", direction);
+        boolean canScrollMore;
+        if (iOS) {
+            WebElement view = unwrap(scrollView);
+            List<String> before = state.visibleIds != null ? state.visibleIds : getVisibleIds(view);
+            args.put("elementId", ((RemoteWebElement) view).getId());
+            driver.executeScript("mobile: scroll", args);
+            state.visibleIds = getVisibleIds(view);
+            canScrollMore = !state.visibleIds.equals(before);
+        } else {
+            args.put("percent", 0.75);
+            try {
+                canScrollMore = scrollGesture(driver, args, state);
+            } catch (StaleElementReferenceException e) {
+                state.scrollable = null;
+                canScrollMore = scrollGesture(driver, args, state);
+            }
+        }
+        // A scroll gesture at the end of the list may still move it; an iOS scroll that changed nothing did not
+        if (canScrollMore || !iOS) {
+            state.position += "down".equals(direction) ? 1 : -1;
+        }
+        if (!canScrollMore && "up".equals(direction)) {
+            state.position = 0;
+        }
+        return canScrollMore;
+    }
+
+    private boolean scrollGesture(AppiumDriver driver, Map<String, Object> args, State state) {
+        if (state.scrollable == null) {
+            state.scrollable = driver.findElement(AppiumBy.androidUIAutomator("new UiSelector().scrollable(true)"));
+        }
+        args.put("elementId", ((RemoteWebElement) state.scrollable).getId());
+        return Boolean.TRUE.equals(driver.executeScript("mobile: scrollGesture", args));
+    }
+
+    private List<String> getVisibleIds(WebElement scrollView) {
+        List<String> ids = new ArrayList<>();
+        for (WebElement text : scrollView.findElements(IOS_VISIBLE_TEXTS)) {
+            ids.add(((RemoteWebElement) text).getId());
+        }
+        return ids;
+    }
+
+    private WebElement unwrap(WebElement element) {
+        return element instanceof WrapsElement ? ((WrapsElement) element).getWrappedElement() : element;
+    }
+
+    private WebElement findVisible(AppiumDriver driver, By by) {
+        List<WebElement> elements = driver.findElements(by);
+        return elements.isEmpty() ? null : elements.get(0);
+    }
+
+    private State getState(AppiumDriver driver) {
+        State state = states.get();
+        if (state == null || !state.sessionId.equals(driver.getSessionId())) {
+            state = new State(driver.getSessionId());
+            states.set(state);
+        }
+        return state;
+    }
+}
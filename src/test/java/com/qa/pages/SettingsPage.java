@@ -10,11 +10,11 @@ public class SettingsPage extends BasePage {
 	
 	@AndroidFindBy (accessibility="test-LOGOUT") 
 	@iOSXCUITFindBy (id = "test-LOGOUT")
-	private WebElement logoutBtn;
+	WebElement logoutBtn;
 	
 	public LoginPage pressLogoutBtn() {
 		click(logoutBtn, "press Logout button");
-		return new LoginPage();
+		return new PageRegistry().navigate(LoginPage.class);
 	}
 
 }
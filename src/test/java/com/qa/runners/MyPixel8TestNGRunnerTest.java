@@ -1,5 +1,6 @@
 package com.qa.runners;
 
+import com.qa.stepDef.PageObjectFactory;
 import com.qa.utils.DriverManager;
 import com.qa.utils.GlobalParams;
 import com.qa.utils.ServerManager;
@@ -16,10 +17,13 @@ import org.testng.xml.XmlTest;
  */
 @CucumberOptions(plugin = {"pretty"
         , "html:target/cucumber/Pixel8/cucumber.html"
+        , "com.qa.listeners.TimingProfilerPlugin:target/timing/Pixel8"
+        , "com.qa.listeners.ScenarioLogContextPlugin"
         , "summary"
 }
         , features = "src/test/resources/Features"
         , glue = {"com.qa.stepDef"}
+        , objectFactory = PageObjectFactory.class
         , dryRun = false
         , monochrome = true
         , tags = "@Test"
@@ -1,5 +1,6 @@
 package com.qa.runners;
 
+import com.qa.stepDef.PageObjectFactory;
 import com.qa.utils.DriverManager;
 import com.qa.utils.GlobalParams;
 import com.qa.utils.ServerManager;
@@ -23,9 +24,11 @@ import static io.cucumber.junit.CucumberOptions.SnippetType.CAMELCASE;
  * <p>
  * - Cucumber options:
  * - `plugin`: Specifies the plugins used for report generation, including a pretty console output,
- * an HTML report, and a summary.
+ * an HTML report, a summary, the TimingProfilerPlugin (step and hook timings in target/timing) and the
+ * ScenarioLogContextPlugin (tags the logs with the scenario and step, see ScenarioLogIndex).
  * - `features`: Location of the feature files.
  * - `glue`: Specifies the location of the step definitions.
+ * - `objectFactory`: Creates the step definitions and scopes the page objects to the scenario.
  * - `snippets`: Defines the code snippet format for undefined steps as camel case.
  * - `dryRun`: If set to true, checks that step definitions are defined without actually running the steps.
  * - `monochrome`: Enables readable console output.
@@ -48,10 +51,13 @@ import static io.cucumber.junit.CucumberOptions.SnippetType.CAMELCASE;
 @CucumberOptions(
         plugin = {"pretty"
                 , "html:target/cucumber/cucumber.html"
+                , "com.qa.listeners.TimingProfilerPlugin:target/timing"
+                , "com.qa.listeners.ScenarioLogContextPlugin"
                 , "summary"
         }
         , features = "src/test/resources/Features"
         , glue = {"com.qa.stepDef"}
+        , objectFactory = PageObjectFactory.class
         , snippets = CAMELCASE
         , dryRun = false
         , monochrome = true
@@ -104,7 +110,7 @@ public class MyRunnerTest {
      * <p>
      * 1. Stops the Appium driver by invoking the quitDriver method in the DriverManager class,
      * which ensures the AppiumDriver instance is terminated and removed.
-     * 2. Stops the Appium server using the ServerManager if it is currently running.
+     * 2. Stops the Appium servers started by the ServerManager, once the driver is quit.
      * <p>
      * This method ensures that all resources initialized during the tests are properly released
      * to prevent memory leaks or unwanted resource usage. It also ensures proper cleanup in
@@ -116,15 +122,8 @@ public class MyRunnerTest {
         DriverManager driverManager = new DriverManager();
         driverManager.quitDriver();
 
-        // Here we are stopping the server only if it is running
-        utils.log().info("Will be Stopping the server if it is running");
-        ServerManager serverManager = new ServerManager();
-        if (serverManager.getServer() != null) {
-            utils.log().info("Server is not null");
-            if (serverManager.getServer().isRunning()) {
-                utils.log().info("Stopping the server");
-                serverManager.getServer().stop();
-            }
-        }
+        // Here we are stopping the servers that are running, after the session on them is quit
+        utils.log().info("Stopping the Appium servers");
+        new ServerManager().stopServers();
     }
 }
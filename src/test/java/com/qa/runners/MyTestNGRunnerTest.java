@@ -1,6 +1,8 @@
 package com.qa.runners;
 
+import com.qa.stepDef.PageObjectFactory;
 import com.qa.utils.DriverManager;
+import com.qa.utils.DriverPool;
 import com.qa.utils.GlobalParams;
 import com.qa.utils.ServerManager;
 import io.cucumber.testng.CucumberOptions;
@@ -22,10 +24,13 @@ import static io.cucumber.junit.CucumberOptions.SnippetType.CAMELCASE;
  */
 @CucumberOptions(plugin = {"pretty"
         , "html:target/cucumber/cucumber.html"
+        , "com.qa.listeners.TimingProfilerPlugin:target/timing"
+        , "com.qa.listeners.ScenarioLogContextPlugin"
         , "summary"
 }
         , features = "src/test/resources/Features"
         , glue = {"com.qa.stepDef"}             // glue = {"com.qa.stepDef"} will tell the runner where to look for the step definitions
+        , objectFactory = PageObjectFactory.class  // objectFactory creates the step definitions and scopes the page objects to the scenario
         , dryRun = false                        // dryRun = true will not run the test, it will only check if the steps are defined or not
         , monochrome = true                     // monochrome = true will make the console output readable
         , tags = "@Test"
@@ -88,18 +93,20 @@ public class MyTestNGRunnerTest {
 
     @AfterClass(alwaysRun = true)
     public void tearDownClass() {
+        // The session is kept warm in the DriverPool, it is quit once the whole suite is done
         DriverManager driverManager = new DriverManager();
-        if (driverManager.getDriver() != null) {
-            driverManager.getDriver().quit();
-            driverManager.setDriver(null);
-        }
-        ServerManager serverManager = new ServerManager();
-        if (serverManager.getServer() != null) {
-            serverManager.getServer().stop();
-        }
+        driverManager.releaseDriver();
+        // The server is shared with the other <test>s and runs the pooled session, it is stopped with the suite
+        new ServerManager().releaseServer();
         if (testNGCucumberRunner != null) {
             testNGCucumberRunner.finish();
         }
     }
 
-}
\ No newline at end of file
+    @AfterSuite(alwaysRun = true)
+    public void tearDownSuite() {
+        new DriverPool().shutdown();
+        new ServerManager().stopServers();
+    }
+
+}
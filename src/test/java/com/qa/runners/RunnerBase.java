@@ -1,8 +1,16 @@
 package com.qa.runners;
 
+import com.qa.stepDef.AppResetManager;
+import com.qa.utils.CapabilityTemplates;
+import com.qa.utils.CommandLatencyHistograms;
 import com.qa.utils.DriverManager;
+import com.qa.utils.DriverPool;
 import com.qa.utils.GlobalParams;
-import com.qa.utils.ServerManager;
+import com.qa.utils.ServerPool;
+import com.qa.utils.ServerReadiness;
+import com.qa.utils.SessionBootstrapper;
+import com.qa.utils.VideoManager;
+import com.qa.utils.WaitEngine;
 import io.cucumber.testng.CucumberPropertiesProvider;
 import io.cucumber.testng.FeatureWrapper;
 import io.cucumber.testng.PickleWrapper;
@@ -12,6 +20,11 @@ import org.testng.ITestContext;
 import org.testng.annotations.*;
 import org.testng.xml.XmlTest;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
 public class RunnerBase {
 
 
@@ -25,40 +38,38 @@ public class RunnerBase {
         testNGCucumberRunner.set(testNGCucumberRunner1);
     }
 
-    @Parameters({"platformName", "udid", "deviceName", "systemPort",
-            "chromeDriverPort", "wdaLocalPort", "webkitDebugProxyPort"})
+    /**
+     * Spawns the Appium servers in the background and starts creating the sessions of every device declared
+     * in testng.xml concurrently, so that each runner only waits for its own device in {@link #setUpClass}.
+     */
+    @BeforeSuite(alwaysRun = true)
+    public void setUpSuite(ITestContext context) throws Exception {
+        new ServerPool().prespawn(context.getSuite().getXmlSuite().getTests().size());
+
+        // The capability templates are validated up front, so a bad configuration fails before any session is requested
+        List<Map<String, String>> devices = new ArrayList<>();
+        CapabilityTemplates templates = new CapabilityTemplates();
+        for (XmlTest xmlTest : context.getSuite().getXmlSuite().getTests()) {
+            templates.register(xmlTest.getAllParameters());
+            devices.add(xmlTest.getAllParameters());
+        }
+        new SessionBootstrapper().bootstrap(devices);
+    }
+
+    @Parameters({"platformName", "udid", "deviceName"})
     @BeforeClass(alwaysRun = true)
-    public void setUpClass(ITestContext context, String platformName, String udid, String deviceName,
-                           @Optional("Android") String systemPort,
-                           @Optional("Android") String chromeDriverPort,
-                           @Optional("iOS") String wdaLocalPort,
-                           @Optional("iOS") String webkitDebugProxyPort) throws Exception {
+    public void setUpClass(ITestContext context, String platformName, String udid, String deviceName) throws Exception {
         XmlTest currentXmlTest = context.getCurrentXmlTest();
         CucumberPropertiesProvider properties = currentXmlTest::getParameter;
 
         ThreadContext.put("ROUTINGKEY", platformName + "_" + deviceName);
 
+        // Ports that are not given in testng.xml are leased from the PortAllocator
         GlobalParams params = new GlobalParams();
-        params.setPlatformName(platformName);
-        params.setUDID(udid);
-        params.setDeviceName(deviceName);
-
-        switch (platformName) {
-            case "Android":
-                params.setSystemPort(systemPort);
-                params.setChromeDriverPort(chromeDriverPort);
-                break;
-            case "iOS":
-                params.setWdaLocalPort(wdaLocalPort);
-                params.setWebkitDebugProxyPort(webkitDebugProxyPort);
-                break;
-            default:
-                throw new Exception("Invalid platformName: " + platformName);
-        }
+        params.initializeGlobalParams(currentXmlTest.getAllParameters());
 
-//        new ServerManager().startServer();
-        ServerManager serverManager = new ServerManager();
-        serverManager.startServer();
+        // The Appium servers are managed by the ServerPool, the session is created on the server of this device
+        new SessionBootstrapper().awaitSession();
 
 //        new DriverManager().initializeDriver();
         DriverManager driverManager = new DriverManager();
@@ -73,25 +84,34 @@ public class RunnerBase {
         getRunner().runScenario(pickle.getPickle());
     }
 
+    /**
+     * Provides the scenarios lazily from the ScenarioScheduler, so that every device pulls the next scenario
+     * when it is ready instead of running all scenarios itself.
+     */
     @DataProvider
-    public Object[][] scenarios() {
-        return getRunner().provideScenarios();
+    public Iterator<Object[]> scenarios(ITestContext context) {
+        return new ScenarioScheduler().scenariosFor(context.getCurrentXmlTest(), getRunner().provideScenarios());
     }
 
     @AfterClass(alwaysRun = true)
     public void tearDownClass() {
+        // The session is kept warm in the DriverPool, it is quit once the whole suite is done
         DriverManager driverManager = new DriverManager();
-        if (driverManager.getDriver() != null) {
-            driverManager.getDriver().quit();
-            driverManager.setDriver(null);
-        }
-        ServerManager serverManager = new ServerManager();
-        if (serverManager.getServer() != null) {
-            serverManager.getServer().stop();
-        }
+        driverManager.releaseDriver();
         if (testNGCucumberRunner != null) {
             getRunner().finish();
         }
     }
 
+    @AfterSuite(alwaysRun = true)
+    public void tearDownSuite() {
+        VideoManager.awaitPendingWrites();
+        new AppResetManager().logTimings();
+        new ServerReadiness().logMetrics();
+        new WaitEngine().logStats();
+        new CommandLatencyHistograms().logPercentiles();
+        new DriverPool().shutdown();
+        new ServerPool().shutdown();
+    }
+
 }
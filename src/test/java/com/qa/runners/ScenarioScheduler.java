@@ -0,0 +1,193 @@
+package com.qa.runners;
+
+import com.qa.utils.TestUtils;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import org.testng.xml.XmlTest;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * The ScenarioScheduler class hands out the scenarios of the suite to the device workers (one per
+ * {@code <test>} in testng.xml) dynamically, instead of every device running all scenarios itself.
+ *
+ * The scenarios are spread round-robin over the per-device queues once, when the first worker asks for
+ * work. Every worker then takes scenarios from the head of its own queue and, once it is empty, steals
+ * from the tail of the queues of the other workers, so that a slow device does not hold back the suite.
+ *
+ * A scenario tagged with one or more {@code @<name>-only} tags (e.g. {@code @android-only}) is only
+ * given to workers whose platform name or device name matches one of those tags. Seeding fails when no worker
+ * accepts a scenario, rather than leaving it out of the run.
+ *
+ * Scenarios are identified by their feature uri and line, so every worker runs the scenario through
+ * its own TestNGCucumberRunner.
+ */
+public class ScenarioScheduler {
+    private static final Map<String, Worker> workers = new ConcurrentHashMap<>();
+    private static boolean seeded;
+
+    TestUtils utils = new TestUtils();
+
+    private static final class Worker {
+        private final String name;
+        private final String platformName;
+        private final String deviceName;
+        private final Deque<Scenario> queue = new ConcurrentLinkedDeque<>();
+
+        private Worker(XmlTest xmlTest) {
+            this.name = xmlTest.getName();
+            this.platformName = String.valueOf(xmlTest.getParameter("platformName"));
+            this.deviceName = String.valueOf(xmlTest.getParameter("deviceName"));
+        }
+
+        private boolean accepts(Scenario scenario) {
+            if (scenario.affinity.isEmpty()) {
+                return true;
+            }
+            return scenario.affinity.contains(platformName.toLowerCase())
+                    || scenario.affinity.contains(deviceName.toLowerCase());
+        }
+    }
+
+    private static final class Scenario {
+        private final String id;
+        private final List<String> affinity = new ArrayList<>();
+
+        private Scenario(Pickle pickle) {
+            this.id = getId(pickle);
+            for (String tag : pickle.getTags()) {
+                if (tag.endsWith("-only")) {
+                    affinity.add(tag.substring(1, tag.length() - "-only".length()).toLowerCase());
+                }
+            }
+        }
+    }
+
+    private static String getId(Pickle pickle) {
+        return pickle.getUri() + ":" + pickle.getLine();
+    }
+
+    /**
+     * Returns the scenarios a worker should run, as a lazy iterator suitable for a TestNG data provider.
+     * Every call to {@code hasNext()} takes the next scenario from the worker's own queue or steals one.
+     *
+     * @param xmlTest the {@code <test>} of the worker
+     * @param scenarios the scenarios as provided by the worker's TestNGCucumberRunner
+     * @return the scenarios to run on this worker
+     */
+    public Iterator<Object[]> scenariosFor(XmlTest xmlTest, Object[][] scenarios) {
+        Map<String, Object[]> byId = new LinkedHashMap<>();
+        for (Object[] scenario : scenarios) {
+            byId.put(getId(((PickleWrapper) scenario[0]).getPickle()), scenario);
+        }
+        seed(xmlTest.getSuite().getTests(), scenarios);
+        Worker worker = workers.get(xmlTest.getName());
+
+        return new Iterator<Object[]>() {
+            private Object[] next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    Scenario scenario = take(worker);
+                    if (scenario == null) {
+                        return false;
+                    }
+                    next = byId.get(scenario.id);
+                    if (next == null) {
+                        // The workers are seeded from the scenarios of the first runner, all runners must agree
+                        utils.log().error("Scenario {} was scheduled on worker {}, whose runner does not have it",
+                                scenario.id, worker.name);
+                        throw new IllegalStateException("Scenario " + scenario.id + " is not known to the runner of "
+                                + worker.name + ": all runners sharing the ScenarioScheduler must select the same "
+                                + "features and tags");
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public Object[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Object[] scenario = next;
+                next = null;
+                return scenario;
+            }
+        };
+    }
+
+    private void seed(List<XmlTest> xmlTests, Object[][] scenarios) {
+        synchronized (ScenarioScheduler.class) {
+            if (seeded) {
+                return;
+            }
+            List<Worker> all = new ArrayList<>();
+            for (XmlTest xmlTest : xmlTests) {
+                Worker worker = new Worker(xmlTest);
+                workers.put(worker.name, worker);
+                all.add(worker);
+            }
+
+            int next = 0;
+            List<String> unplaced = new ArrayList<>();
+            for (Object[] row : scenarios) {
+                Scenario scenario = new Scenario(((PickleWrapper) row[0]).getPickle());
+                boolean queued = false;
+                for (int i = 0; i < all.size() && !queued; i++) {
+                    Worker worker = all.get((next + i) % all.size());
+                    if (worker.accepts(scenario)) {
+                        worker.queue.offerLast(scenario);
+                        next = (next + i + 1) % all.size();
+                        queued = true;
+                    }
+                }
+                if (!queued) {
+                    unplaced.add(scenario.id + " " + scenario.affinity);
+                }
+            }
+            if (!unplaced.isEmpty()) {
+                // A scenario no device can run would silently be left out of the suite
+                List<String> available = new ArrayList<>();
+                all.forEach(worker -> available.add(worker.name + " (" + worker.platformName + ", "
+                        + worker.deviceName + ")"));
+                utils.log().error("No device accepts scenarios {}, devices: {}", unplaced, available);
+                throw new IllegalStateException("No device accepts the scenarios " + unplaced
+                        + "; available devices: " + available);
+            }
+            seeded = true;
+            workers.values().forEach(worker -> utils.log().info("Worker " + worker.name + " seeded with "
+                    + worker.queue.size() + " scenario(s)"));
+        }
+    }
+
+    private Scenario take(Worker worker) {
+        Scenario scenario = worker.queue.pollFirst();
+        if (scenario != null) {
+            return scenario;
+        }
+        for (Worker victim : workers.values()) {
+            if (victim == worker) {
+                continue;
+            }
+            Iterator<Scenario> candidates = victim.queue.descendingIterator();
+            while (candidates.hasNext()) {
+                Scenario candidate = candidates.next();
+                if (worker.accepts(candidate) && victim.queue.removeLastOccurrence(candidate)) {
+                    utils.log().info("Worker " + worker.name + " stole " + candidate.id + " from " + victim.name);
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+}
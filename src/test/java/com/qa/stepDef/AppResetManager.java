@@ -0,0 +1,100 @@
+package com.qa.stepDef;
+
+import com.qa.pages.BasePage;
+import com.qa.pages.PageRegistry;
+import com.qa.pages.ScrollIndex;
+import com.qa.utils.DriverManager;
+import com.qa.utils.PropertyManager;
+import com.qa.utils.TestUtils;
+import io.appium.java_client.AppiumDriver;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The AppResetManager class resets the application under test before each scenario, so that scenarios
+ * are isolated from each other without having to create a new session per scenario.
+ *
+ * The strategy is selected per scenario with a {@code @reset-<name>} tag (see {@link ResetStrategy}),
+ * falling back to the defaultResetStrategy from config.properties. The time spent in every strategy is
+ * recorded so that the cheapest strategy that still isolates the scenarios can be picked.
+ */
+public class AppResetManager {
+    private static final Map<ResetStrategy, Timing> timings = new ConcurrentHashMap<>();
+
+    TestUtils utils = new TestUtils();
+
+    /**
+     * Selects the strategy for a scenario from its tags.
+     *
+     * @param tags the tags of the scenario
+     * @return the strategy of the first {@code @reset-} tag, or the configured default strategy
+     * @throws IOException if the config properties could not be loaded
+     */
+    public ResetStrategy selectStrategy(Collection<String> tags) throws IOException {
+        for (String tag : tags) {
+            if (tag.startsWith("@reset-")) {
+                return ResetStrategy.fromName(tag.substring("@reset-".length()));
+            }
+        }
+        Properties props = new PropertyManager().getProps();
+        return ResetStrategy.fromName(props.getProperty("defaultResetStrategy", "relaunch"));
+    }
+
+    /**
+     * Resets the application with the given strategy and records how long it took.
+     *
+     * @param strategy the strategy to apply
+     */
+    public void reset(ResetStrategy strategy) {
+        AppiumDriver driver = new DriverManager().getDriver();
+        long start = System.nanoTime();
+        PageRegistry pages = new PageRegistry();
+        strategy.reset(pages.get(BasePage.class), driver, new DriverManager().getAppId(driver.getCapabilities()));
+        pages.invalidate();
+        new ScrollIndex().resetPosition();
+        long elapsed = System.nanoTime() - start;
+        timings.computeIfAbsent(strategy, s -> new Timing()).record(elapsed);
+        utils.log().info("App reset with strategy {} took {} ms", strategy, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /**
+     * Logs the number of resets and the average and maximum time for every strategy used so far.
+     */
+    public void logTimings() {
+        timings.forEach((strategy, timing) -> utils.log().info("Reset strategy " + strategy + ": "
+                + timing.count.sum() + " reset(s), avg " + timing.averageMillis() + " ms, max "
+                + TimeUnit.NANOSECONDS.toMillis(timing.max.get()) + " ms"));
+    }
+
+    static String getDeepLinkStartUrl() {
+        try {
+            return new PropertyManager().getProps().getProperty("deepLinkStartUrl");
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load config properties", e);
+        }
+    }
+
+    private static final class Timing {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos) {
+            count.increment();
+            total.add(nanos);
+            max.accumulate(nanos);
+        }
+
+        long averageMillis() {
+            long n = count.sum();
+            return n == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(total.sum() / n);
+        }
+    }
+}
@@ -14,6 +14,21 @@ import java.io.IOException;
 
 public class Hooks {
 
+    /**
+     * Resets the application under test before each scenario, before the video recording is started.
+     *
+     * The reset strategy is taken from the {@code @reset-<name>} tag of the scenario (e.g. {@code @reset-clear-data}),
+     * or from the defaultResetStrategy in config.properties when the scenario has no such tag.
+     *
+     * @param scenario The scenario object representing the current test execution.
+     * @throws IOException if the config properties could not be loaded
+     */
+    @Before(order = 0)
+    public void resetApp(Scenario scenario) throws IOException {
+        AppResetManager resetManager = new AppResetManager();
+        resetManager.reset(resetManager.selectStrategy(scenario.getSourceTagNames()));
+    }
+
     /**
      * Initializes the testing environment before executing test cases.
      *
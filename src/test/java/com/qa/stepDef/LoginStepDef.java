@@ -1,38 +1,44 @@
 package com.qa.stepDef;
 
 import com.qa.pages.LoginPage;
+import com.qa.pages.PageRegistry;
 import com.qa.pages.ProductsPage;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import org.junit.Assert;
 
 public class LoginStepDef {
+    private final PageRegistry pages;
+
+    public LoginStepDef(PageRegistry pages) {
+        this.pages = pages;
+    }
 
     @When("^I enter username as \"([^\"]*)\"$")
     public void iEnterUsernameAs(String username) throws InterruptedException {
-        new LoginPage().enterUserName(username);
+        pages.get(LoginPage.class).enterUserName(username);
 
     }
 
     @When("^I enter password as \"([^\"]*)\"$")
     public void iEnterPasswordAs(String password) {
-        new LoginPage().enterPassword(password);
+        pages.get(LoginPage.class).enterPassword(password);
 
     }
 
     @When("^I click on the login button$")
     public void iClickOnTheLoginButton() {
-        new LoginPage().pressLoginBtn();
+        pages.get(LoginPage.class).pressLoginBtn();
 
     }
 
     @Then("^I should see the error message \"([^\"]*)\"$")
     public void iShouldSeeTheErrorMessage(String errorMessage) {
-        Assert.assertEquals(errorMessage, new LoginPage().getErrTxt());
+        Assert.assertEquals(errorMessage, pages.get(LoginPage.class).getErrTxt());
     }
 
     @Then("^I should see the products page title \"([^\"]*)\"$")
     public void iShouldSeeTheProductsPageTitle(String pageTitle) {
-        Assert.assertEquals(pageTitle, new ProductsPage().getTitle());
+        Assert.assertEquals(pageTitle, pages.get(ProductsPage.class).getTitle());
     }
 }
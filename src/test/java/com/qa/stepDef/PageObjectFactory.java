@@ -0,0 +1,78 @@
+package com.qa.stepDef;
+
+import com.qa.pages.BasePage;
+import com.qa.pages.PageRegistry;
+import io.cucumber.core.backend.ObjectFactory;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The PageObjectFactory class is the Cucumber object factory of the glue code. It creates the step definition
+ * and hook classes once per scenario, like the default factory, and ties the PageRegistry scope to the scenario.
+ *
+ * A glue class may declare a constructor taking the PageRegistry or page objects; those are injected from the
+ * registry of the running scenario.
+ *
+ * Cucumber loads object factories with the ServiceLoader, so the factory is registered in
+ * META-INF/services/io.cucumber.core.backend.ObjectFactory as well as named in the runner options.
+ */
+public class PageObjectFactory implements ObjectFactory {
+    private final Map<Class<?>, Object> instances = new HashMap<>();
+
+    @Override
+    public void start() {
+        new PageRegistry().begin();
+    }
+
+    @Override
+    public void stop() {
+        instances.clear();
+        new PageRegistry().end();
+    }
+
+    @Override
+    public boolean addClass(Class<?> glueClass) {
+        return true;
+    }
+
+    @Override
+    public <T> T getInstance(Class<T> glueClass) {
+        Object instance = instances.get(glueClass);
+        if (instance == null) {
+            instance = create(glueClass);
+            instances.put(glueClass, instance);
+        }
+        return glueClass.cast(instance);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object create(Class<?> type) {
+        if (type == PageRegistry.class) {
+            return new PageRegistry();
+        }
+        if (BasePage.class.isAssignableFrom(type)) {
+            return new PageRegistry().get((Class<? extends BasePage>) type);
+        }
+
+        Constructor<?>[] constructors = type.getConstructors();
+        if (constructors.length != 1) {
+            throw new IllegalStateException(type.getName() + " must have a single public constructor to be created"
+                    + " by the PageObjectFactory, found " + constructors.length);
+        }
+        Constructor<?> constructor = constructors[0];
+        Object[] args = new Object[constructor.getParameterCount()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = create(constructor.getParameterTypes()[i]);
+        }
+        try {
+            return constructor.newInstance(args);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Failed to create " + type.getName(), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create " + type.getName(), e);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.qa.stepDef;
 
 import com.qa.pages.LoginPage;
+import com.qa.pages.PageRegistry;
+import com.qa.pages.ProductCatalogue;
 import com.qa.pages.ProductDetailsPage;
 import com.qa.pages.ProductsPage;
 import io.cucumber.java.en.Given;
@@ -9,17 +11,22 @@ import io.cucumber.java.en.When;
 import org.junit.Assert;
 
 public class ProductStepDef {
+    private final PageRegistry pages;
+
+    public ProductStepDef(PageRegistry pages) {
+        this.pages = pages;
+    }
 
     @Given("^I'm logged in$")
     public void iMLoggedIn() throws InterruptedException {
-        new LoginPage().login("standard_user", "secret_sauce");
+        pages.get(LoginPage.class).login("standard_user", "secret_sauce");
     }
 
     @Then("^the product is listed with title \"([^\"]*)\" and price \"([^\"]*)\"$")
     public void theProductIsListedWithTitleAndPrice(String title, String price) throws Exception {
-        Boolean titleCheck = new ProductsPage().getProductTitle(title).equalsIgnoreCase(title);
-        Boolean priceCheck = true;
-//        Boolean priceCheck = new ProductsPage().getProductPrice(title, price).equalsIgnoreCase(price);
+        ProductCatalogue.Product product = pages.get(ProductsPage.class).getCatalogue().find(title);
+        Boolean titleCheck = product != null;
+        Boolean priceCheck = product != null && product.getPrice().equalsIgnoreCase(price);
         Assert.assertTrue("titleCheck = " + titleCheck + ", priceCheck = " + priceCheck,
                 titleCheck & priceCheck);
     }
@@ -27,13 +34,13 @@ public class ProductStepDef {
     //    @When("^I click product title {string}$")
     @When("^I click product title \"([^\"]*)\"$")
     public void iClickProductTitle(String title) throws Exception {
-        new ProductsPage().pressProductTitle(title);
+        pages.get(ProductsPage.class).pressProductTitle(title);
     }
     //   Use this -----> for String  \"([^\"]*)\" and for int (\\d+) and for float (\\d+.\\d+) and for any (.*) for date
     //    @Then("^I should be on product details page with title {string}, price {string} and description {string}$")
     @Then("^I should be on product details page with title \"([^\"]*)\", price \"([^\"]*)\" and description \"([^\"]*)\"$")
     public void iShouldBeOnProductDetailsPageWithTitlePriceAndDescription(String title, String price, String description) throws Exception {
-        ProductDetailsPage productDetailsPage = new ProductDetailsPage();
+        ProductDetailsPage productDetailsPage = pages.get(ProductDetailsPage.class).snapshot();
         boolean titleCheck = productDetailsPage.getTitle().equalsIgnoreCase(title);
         boolean descCheck = productDetailsPage.getDesc().equalsIgnoreCase(description);
         boolean priceCheck = productDetailsPage.getPrice().equalsIgnoreCase(price);
@@ -0,0 +1,116 @@
+package com.qa.stepDef;
+
+import com.qa.pages.BasePage;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.InteractsWithApps;
+
+import java.util.HashMap;
+
+/**
+ * The ResetStrategy enum lists the ways the application under test can be brought back to a clean state
+ * between scenarios, ordered from the cheapest to the most expensive one. A strategy is selected per
+ * scenario with a tag such as {@code @reset-clear-data}; see {@link AppResetManager}.
+ */
+public enum ResetStrategy {
+
+    /**
+     * Leaves the application as the previous scenario left it.
+     */
+    NONE("none") {
+        @Override
+        void reset(BasePage page, AppiumDriver driver, String appId) {
+        }
+    },
+
+    /**
+     * Terminates and activates the application again, which keeps the app data (e.g. the logged-in user).
+     */
+    RELAUNCH("relaunch") {
+        @Override
+        void reset(BasePage page, AppiumDriver driver, String appId) {
+            page.closeApp();
+            page.launchApp();
+        }
+    },
+
+    /**
+     * Clears the application data and launches the application again.
+     */
+    CLEAR_DATA("clear-data") {
+        @Override
+        void reset(BasePage page, AppiumDriver driver, String appId) {
+            HashMap<String, String> args = new HashMap<String, String>();
+            args.put(isAndroid(driver) ? "appId" : "bundleId", appId);
+            driver.executeScript("mobile: clearApp", args);
+            page.launchApp();
+        }
+    },
+
+    /**
+     * Opens the start screen through a deep link (deepLinkStartUrl in config.properties).
+     */
+    DEEP_LINK("deep-link") {
+        @Override
+        void reset(BasePage page, AppiumDriver driver, String appId) {
+            String url = AppResetManager.getDeepLinkStartUrl();
+            if (url == null || url.isEmpty()) {
+                throw new IllegalStateException("deepLinkStartUrl is not specified in properties file.");
+            }
+            HashMap<String, String> args = new HashMap<String, String>();
+            args.put("url", url);
+            args.put(isAndroid(driver) ? "package" : "bundleId", appId);
+            driver.executeScript("mobile: deepLink", args);
+        }
+    },
+
+    /**
+     * Removes and installs the application again. This is the slowest strategy, but the only one that
+     * also resets state kept outside of the app data.
+     */
+    REINSTALL("reinstall") {
+        @Override
+        void reset(BasePage page, AppiumDriver driver, String appId) {
+            Object app = driver.getCapabilities().getCapability("app");
+            if (app == null) {
+                throw new IllegalStateException("The session has no app capability to reinstall from.");
+            }
+            ((InteractsWithApps) driver).removeApp(appId);
+            ((InteractsWithApps) driver).installApp(app.toString());
+            ((InteractsWithApps) driver).activateApp(appId);
+        }
+    };
+
+    private final String tagName;
+
+    ResetStrategy(String tagName) {
+        this.tagName = tagName;
+    }
+
+    /**
+     * @return the scenario tag selecting this strategy, e.g. {@code @reset-relaunch}
+     */
+    public String getTag() {
+        return "@reset-" + tagName;
+    }
+
+    abstract void reset(BasePage page, AppiumDriver driver, String appId);
+
+    /**
+     * Resolves a strategy from its name as used in tags and in config.properties, e.g. "clear-data".
+     *
+     * @param name the strategy name
+     * @return the matching strategy
+     */
+    public static ResetStrategy fromName(String name) {
+        for (ResetStrategy strategy : values()) {
+            if (strategy.tagName.equalsIgnoreCase(name.trim())) {
+                return strategy;
+            }
+        }
+        throw new IllegalArgumentException("Invalid reset strategy: " + name);
+    }
+
+    private static boolean isAndroid(AppiumDriver driver) {
+        return driver.getCapabilities().getCapability("appPackage") != null;
+    }
+}
@@ -0,0 +1,186 @@
+package com.qa.utils;
+
+import io.appium.java_client.android.options.UiAutomator2Options;
+import io.appium.java_client.ios.options.XCUITestOptions;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.ImmutableCapabilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The CapabilityTemplates class is a registry of validated, immutable capability templates, one per device.
+ *
+ * A template is built once from config.properties and the GlobalParams of the device (which come from the
+ * system properties or the TestNG parameters). All values are parsed and validated while building it, so a
+ * bad configuration fails before any session is requested. The CapabilitiesManager then only stamps out a
+ * cheap copy of the template for every new session.
+ */
+public class CapabilityTemplates {
+    private static final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    TestUtils utils = new TestUtils();
+
+    /**
+     * An immutable capability template for one device, together with the Appium server URL to use.
+     */
+    public static final class Template {
+        private final String platformName;
+        private final URL appiumUrl;
+        private final ImmutableCapabilities capabilities;
+
+        private Template(String platformName, URL appiumUrl, Capabilities capabilities) {
+            this.platformName = platformName;
+            this.appiumUrl = appiumUrl;
+            this.capabilities = ImmutableCapabilities.copyOf(capabilities);
+        }
+
+        public String getPlatformName() {
+            return platformName;
+        }
+
+        public URL getAppiumUrl() {
+            return appiumUrl;
+        }
+
+        public Capabilities getCapabilities() {
+            return capabilities;
+        }
+
+        /**
+         * @return a mutable copy of the template for a new Android session
+         */
+        public UiAutomator2Options newAndroidOptions() {
+            return new UiAutomator2Options(capabilities);
+        }
+
+        /**
+         * @return a mutable copy of the template for a new iOS session
+         */
+        public XCUITestOptions newIOSOptions() {
+            return new XCUITestOptions(capabilities);
+        }
+    }
+
+    /**
+     * Builds and validates the template of a device. This is meant to be called for every device at startup.
+     *
+     * @param device the parameters of the device, as declared in testng.xml
+     * @return the template of the device
+     * @throws IOException if the config properties could not be loaded
+     */
+    public Template register(Map<String, String> device) throws IOException {
+        new GlobalParams().initializeGlobalParams(device);
+        return getTemplate();
+    }
+
+    /**
+     * Returns the template of the device configured in the GlobalParams of the current thread, building it
+     * the first time it is requested.
+     *
+     * @return the template of the device
+     * @throws IOException if the config properties could not be loaded
+     */
+    public Template getTemplate() throws IOException {
+        GlobalParams params = new GlobalParams();
+        String key = new DriverPool().getSessionKey() + "|" + params.getSystemPort() + "|"
+                + params.getChromeDriverPort() + "|" + params.getWdaLocalPort();
+        Template template = templates.get(key);
+        if (template == null) {
+            template = build(params, new PropertyManager().getProps());
+            templates.putIfAbsent(key, template);
+            utils.log().info("Capability template registered for " + key);
+        }
+        return template;
+    }
+
+    private Template build(GlobalParams params, Properties props) {
+        URL url = parseUrl(require(props, "appiumURL"));
+        String resources = System.getProperty("user.dir") + File.separator + "src" + File.separator + "test"
+                + File.separator + "resources";
+
+        switch (String.valueOf(params.getPlatformName())) {
+            case "Android":
+                UiAutomator2Options androidOptions = new UiAutomator2Options();
+                androidOptions.setPlatformName(params.getPlatformName());
+                androidOptions.setUdid(requireValue("udid", params.getUDID()));
+                androidOptions.setDeviceName(requireValue("deviceName", params.getDeviceName()));
+                androidOptions.setAutomationName(require(props, "androidAutomationName"));
+                androidOptions.setNewCommandTimeout(Duration.ofSeconds(560));
+                androidOptions.setAppPackage(require(props, "androidAppPackage"));
+                androidOptions.setAppActivity(require(props, "androidAppActivity"));
+                androidOptions.setAvd(params.getDeviceName()).setAvdLaunchTimeout(Duration.ofSeconds(660));
+                androidOptions.setSystemPort(parsePort("systemPort", params.getSystemPort()));
+                androidOptions.setChromedriverPort(parsePort("chromeDriverPort", params.getChromeDriverPort()));
+                androidOptions.setApp(requireFile(resources + props.getProperty("androidAppLocation",
+                        "/app/Android.SauceLabs.Mobile.Sample.app.2.7.1.apk")));
+                return new Template(params.getPlatformName(), url, androidOptions);
+
+            case "iOS":
+                XCUITestOptions iOSOptions = new XCUITestOptions();
+                iOSOptions.setPlatformName(params.getPlatformName());
+                iOSOptions.setUdid(requireValue("udid", params.getUDID()));
+                iOSOptions.setDeviceName(requireValue("deviceName", params.getDeviceName()));
+                iOSOptions.setAutomationName(require(props, "iOSAutomationName"));
+                iOSOptions.setBundleId(require(props, "iOSBundleId"));
+                iOSOptions.setWdaLocalPort(parsePort("wdaLocalPort", params.getWdaLocalPort()));
+                iOSOptions.setApp(requireFile(resources + props.getProperty("iOSAppLocation",
+                        "/app/SwagLabsMobileApp.app")));
+                return new Template(params.getPlatformName(), url, iOSOptions);
+
+            default:
+                throw new IllegalStateException("Invalid Platform Name: " + params.getPlatformName());
+        }
+    }
+
+    private String require(Properties props, String name) {
+        String value = props.getProperty(name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException(name + " is not specified in properties file.");
+        }
+        return value;
+    }
+
+    private String requireValue(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException(name + " is not specified.");
+        }
+        return value;
+    }
+
+    private URL parseUrl(String value) {
+        try {
+            return URI.create(value).toURL();
+        } catch (MalformedURLException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid appiumURL: " + value, e);
+        }
+    }
+
+    private int parsePort(String name, String value) {
+        try {
+            int port = Integer.parseInt(requireValue(name, value));
+            if (port < 1024 || port > 65535) {
+                throw new IllegalArgumentException(name + " is out of range: " + port);
+            }
+            return port;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value, e);
+        }
+    }
+
+    private String requireFile(String path) {
+        String app = path.replace("/", File.separator);
+        if (!new File(app).exists()) {
+            throw new IllegalArgumentException("App not found: " + app);
+        }
+        utils.log().info("App Url is " + app);
+        return app;
+    }
+}
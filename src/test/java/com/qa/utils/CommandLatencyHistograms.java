@@ -0,0 +1,139 @@
+package com.qa.utils;
+
+import com.qa.pages.BasePage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The CommandLatencyHistograms class records the latency of every driver command in a histogram per device,
+ * command and calling page method (e.g. {@code LoginPage.pressLoginBtn}), found by walking the stack of the
+ * calling thread. Commands sent outside page objects are attributed to the calling step definition or runner.
+ *
+ * The histograms are lock-free: latencies are counted in log-linear microsecond buckets, eight per power of two,
+ * so percentiles are accurate within 12.5%. The count, total and maximum time, failures, and the p50, p95 and
+ * p99 of every key are logged at the end of the suite, the keys with the most total time first.
+ */
+public class CommandLatencyHistograms {
+    private static final Map<String, Map<String, Histogram>> histograms = new ConcurrentHashMap<>();
+    private static final StackWalker walker = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Up to 2^40 us, about 12 days
+    private static final int BUCKETS = SUB_BUCKETS + (40 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    static TestUtils utils = new TestUtils();
+
+    static final class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalMicros = new LongAdder();
+        private final LongAccumulator maxMicros = new LongAccumulator(Math::max, 0);
+
+        void record(long micros, boolean failed) {
+            buckets.incrementAndGet(Math.min(BUCKETS - 1, bucketOf(Math.max(0, micros))));
+            count.increment();
+            totalMicros.add(micros);
+            maxMicros.accumulate(micros);
+            if (failed) {
+                failures.increment();
+            }
+        }
+
+        // The upper bound of the bucket holding the given percentile, in microseconds
+        long percentile(double p) {
+            long rank = Math.max(1, (long) Math.ceil(count.sum() * p));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return upperBoundOf(i);
+                }
+            }
+            return upperBoundOf(BUCKETS - 1);
+        }
+    }
+
+    static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket + 1;
+        }
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Records the latency of a command sent by the current thread.
+     *
+     * @param device the udid of the device the command was sent to
+     * @param command the name of the command
+     * @param nanos the latency of the command
+     * @param failed whether the command failed
+     */
+    public void record(String device, String command, long nanos, boolean failed) {
+        histograms.computeIfAbsent(String.valueOf(device), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(command + " @ " + findCaller(), k -> new Histogram())
+                .record(nanos / 1_000, failed);
+    }
+
+    /**
+     * Logs the count, total and maximum time, failures and the p50, p95 and p99 latency of every command and
+     * calling method, per device.
+     */
+    public void logPercentiles() {
+        new TreeMap<>(histograms).forEach((device, keys) -> {
+            List<Map.Entry<String, Histogram>> entries = new ArrayList<>(keys.entrySet());
+            entries.sort((a, b) -> Long.compare(b.getValue().totalMicros.sum(), a.getValue().totalMicros.sum()));
+            StringBuilder sb = new StringBuilder("Command latencies on " + device + ":");
+            for (Map.Entry<String, Histogram> entry : entries) {
+                Histogram histogram = entry.getValue();
+                sb.append(System.lineSeparator()).append("  ").append(entry.getKey())
+                        .append(" n=").append(histogram.count.sum())
+                        .append(" total=").append(histogram.totalMicros.sum() / 1_000).append("ms")
+                        .append(" p50<").append(format(histogram.percentile(0.5)))
+                        .append(" p95<").append(format(histogram.percentile(0.95)))
+                        .append(" p99<").append(format(histogram.percentile(0.99)))
+                        .append(" max=").append(format(histogram.maxMicros.get()))
+                        .append(" failed=").append(histogram.failures.sum());
+            }
+            utils.log().info(sb.toString());
+        });
+    }
+
+    private String findCaller() {
+        // Page methods are always called from step definitions or runners, so the walk stops at the first of those
+        return walker.walk(frames -> frames
+                .filter(frame -> isPage(frame.getDeclaringClass())
+                        || frame.getClassName().startsWith("com.qa.stepDef.")
+                        || frame.getClassName().startsWith("com.qa.runners."))
+                .findFirst()
+                .map(frame -> frame.getDeclaringClass().getSimpleName() + "." + frame.getMethodName())
+                .orElse("-"));
+    }
+
+    private boolean isPage(Class<?> c) {
+        return BasePage.class.isAssignableFrom(c) && c != BasePage.class;
+    }
+
+    private String format(long micros) {
+        return micros < 10_000 ? micros + "us" : micros / 1_000 + "ms";
+    }
+}
@@ -0,0 +1,85 @@
+package com.qa.utils;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the bucket bounds and percentiles of the CommandLatencyHistograms.
+ */
+public class CommandLatencyHistogramsTest {
+
+    @Test
+    public void smallLatenciesHaveABucketPerMicrosecond() {
+        for (int micros = 0; micros < 8; micros++) {
+            assertEquals(CommandLatencyHistograms.bucketOf(micros), micros);
+            assertEquals(CommandLatencyHistograms.upperBoundOf(micros), micros + 1);
+        }
+    }
+
+    @Test
+    public void everyLatencyIsBelowTheUpperBoundOfItsBucketAndWithin12Percent() {
+        int previous = -1;
+        for (long micros = 0; micros < 1L << 40; micros = micros < 100_000 ? micros + 1 : micros * 17 / 16) {
+            int bucket = CommandLatencyHistograms.bucketOf(micros);
+            long lowerBound = bucket == 0 ? 0 : CommandLatencyHistograms.upperBoundOf(bucket - 1);
+            long upperBound = CommandLatencyHistograms.upperBoundOf(bucket);
+            assertTrue(bucket >= previous, "bucket of " + micros + " is before the bucket of a smaller latency");
+            assertTrue(lowerBound <= micros && micros < upperBound,
+                    micros + "us is not in [" + lowerBound + ", " + upperBound + ")");
+            assertTrue(upperBound - lowerBound <= Math.max(1, lowerBound / 8),
+                    "bucket [" + lowerBound + ", " + upperBound + ") is wider than 12.5%");
+            previous = bucket;
+        }
+    }
+
+    @Test
+    public void bucketsAreContiguousAtPowersOfTwo() {
+        for (int exponent = 3; exponent < 40; exponent++) {
+            long power = 1L << exponent;
+            int bucket = CommandLatencyHistograms.bucketOf(power);
+            assertEquals(CommandLatencyHistograms.bucketOf(power - 1), bucket - 1);
+            assertEquals(CommandLatencyHistograms.upperBoundOf(bucket - 1), power);
+        }
+    }
+
+    @Test
+    public void percentilesAreTheUpperBoundsOfTheirBuckets() {
+        CommandLatencyHistograms.Histogram histogram = new CommandLatencyHistograms.Histogram();
+        for (long micros = 1; micros <= 1_000; micros++) {
+            histogram.record(micros, false);
+        }
+
+        assertEquals(histogram.percentile(0.5), CommandLatencyHistograms.upperBoundOf(
+                CommandLatencyHistograms.bucketOf(500)));
+        assertEquals(histogram.percentile(0.95), CommandLatencyHistograms.upperBoundOf(
+                CommandLatencyHistograms.bucketOf(950)));
+        assertEquals(histogram.percentile(0.99), CommandLatencyHistograms.upperBoundOf(
+                CommandLatencyHistograms.bucketOf(990)));
+        assertEquals(histogram.percentile(1.0), 1_024);
+    }
+
+    @Test
+    public void percentilesOfASkewedDistribution() {
+        CommandLatencyHistograms.Histogram histogram = new CommandLatencyHistograms.Histogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(3, false);
+        }
+        histogram.record(200_000, true);
+        histogram.record(200_000, true);
+
+        assertEquals(histogram.percentile(0.5), 4);
+        assertEquals(histogram.percentile(0.98), 4);
+        long p99 = histogram.percentile(0.99);
+        assertTrue(p99 > 200_000 && p99 <= 200_000 * 9 / 8, "p99 is " + p99);
+    }
+
+    @Test
+    public void latenciesBeyondTheLastBucketAreCountedInIt() {
+        CommandLatencyHistograms.Histogram histogram = new CommandLatencyHistograms.Histogram();
+        histogram.record(Long.MAX_VALUE / 2, false);
+
+        assertEquals(histogram.percentile(0.5), 1L << 40);
+    }
+}
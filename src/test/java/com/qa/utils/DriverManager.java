@@ -3,12 +3,15 @@ package com.qa.utils;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.ios.IOSDriver;
+import org.openqa.selenium.Capabilities;
 
 import java.io.IOException;
 
 /**
  * The DriverManager class is responsible for managing AppiumDriver instances associated with threads using ThreadLocal.
  * It provides methods to initialize, retrieve, and quit the AppiumDriver for the current thread.
+ * The drivers it hands out are instrumented: every command they send is timed by their InstrumentedCommandExecutor
+ * and recorded in the CommandLatencyHistograms, per device, command and calling page method.
  */
 public class DriverManager {
 
@@ -27,7 +30,8 @@ public class DriverManager {
     /**
      * Initializes an AppiumDriver instance for use in the current thread.
      *
-     * If the driver instance is null, it attempts to create and assign a new AppiumDriver
+     * If the driver instance is null, it leases a session from the DriverPool, which reuses a warm
+     * session for the same device when one is available and otherwise creates a new AppiumDriver
      * by invoking the CapabilitiesManager's capabilities. The initialization process includes
      * setting the driver to the current thread's context using the ThreadLocal object in the DriverManager class.
      *
@@ -46,7 +50,7 @@ public class DriverManager {
         if (driver == null) {
             try {
                 utils.log().info("Initializing appium driver");
-                driver = CapabilitiesManager.getCaps();
+                driver = new DriverPool().lease();
                 if (driver == null) {
                     throw new Exception("Driver is null");
                 }
@@ -61,6 +65,21 @@ public class DriverManager {
 
     }
 
+    /**
+     * Gives the Appium driver instance associated with the current thread back to the DriverPool
+     * and removes it from the ThreadLocal storage, so that the session stays warm for the next runner.
+     */
+    public void releaseDriver() {
+        if (this.driver.get() != null) {
+            utils.log().info("Releasing Appium driver for current thread");
+            try {
+                new DriverPool().giveBack(this.driver.get());
+            } finally {
+                this.driver.remove();
+            }
+        }
+    }
+
     /**
      * Quits the Appium driver instance associated with the current thread and
      * removes it from the ThreadLocal storage to ensure cleanup.
@@ -79,7 +98,7 @@ public class DriverManager {
         if (this.driver.get() != null) {
             utils.log().info("Quitting Appium driver for current thread");
             try {
-                this.driver.get().quit(); // Quit the driver
+                new DriverPool().evict(this.driver.get()); // Quit the driver and drop it from the pool
             } catch (Exception e) {
                 utils.log().error("Error while quitting Appium driver: " + e.getMessage(), e);
             } finally {
@@ -88,4 +107,18 @@ public class DriverManager {
             }
         }
     }
+
+    /**
+     * Returns the id of the app under test of a session: the appPackage on Android, the bundleId on iOS.
+     *
+     * @param caps the capabilities of the session
+     * @return the app id, or null when the session has neither capability
+     */
+    public String getAppId(Capabilities caps) {
+        Object appId = caps.getCapability("appPackage");
+        if (appId == null) {
+            appId = caps.getCapability("bundleId");
+        }
+        return appId == null ? null : appId.toString();
+    }
 }
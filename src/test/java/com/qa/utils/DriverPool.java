@@ -0,0 +1,190 @@
+package com.qa.utils;
+
+import com.qa.pages.ProductCatalogue;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.InteractsWithApps;
+import io.appium.java_client.appmanagement.ApplicationState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * The DriverPool class keeps warm AppiumDriver sessions so that runners can reuse them instead of
+ * paying for a new session (app install, UiAutomator2 / WDA bootstrap) every time.
+ *
+ * Sessions are grouped by a normalized capability key (platform, udid and device name). A runner
+ * leases a session for its device, and gives it back when it is done with it. Before an idle session
+ * is handed out again it is health-checked (session alive, app in the foreground); broken sessions
+ * are evicted and replaced by a fresh one created through the CapabilitiesManager.
+ */
+public class DriverPool {
+    private static final Map<String, BlockingDeque<AppiumDriver>> idle = new ConcurrentHashMap<>();
+    private static final Map<AppiumDriver, String> leased = new ConcurrentHashMap<>();
+    // The udid of every open session, whose port block is released once the last session of the device is quit
+    private static final Map<AppiumDriver, String> udids = new ConcurrentHashMap<>();
+
+    TestUtils utils = new TestUtils();
+
+    /**
+     * Builds the normalized capability key for the device configured in the GlobalParams of the current thread.
+     *
+     * @return the key used to group sessions of the same device
+     */
+    public String getSessionKey() {
+        GlobalParams params = new GlobalParams();
+        return getSessionKey(params.getPlatformName(), params.getUDID(), params.getDeviceName());
+    }
+
+    /**
+     * Builds the normalized capability key for the given device.
+     *
+     * @param platformName the platform of the device
+     * @param udid the unique device identifier
+     * @param deviceName the name of the device
+     * @return the key used to group sessions of the same device
+     */
+    public static String getSessionKey(String platformName, String udid, String deviceName) {
+        return normalize(platformName) + "|" + normalize(udid) + "|" + normalize(deviceName);
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase();
+    }
+
+    /**
+     * Leases a session for the device of the current thread. An idle, healthy session is reused when
+     * available; otherwise a new session is created.
+     *
+     * @return an AppiumDriver that is exclusively owned by the caller until it is given back
+     * @throws Exception if a new session could not be created
+     */
+    public AppiumDriver lease() throws Exception {
+        String key = getSessionKey();
+        BlockingDeque<AppiumDriver> sessions = idle.computeIfAbsent(key, k -> new LinkedBlockingDeque<>());
+
+        AppiumDriver driver;
+        while ((driver = sessions.pollFirst()) != null) {
+            if (isHealthy(driver)) {
+                utils.log().info("Reusing warm session " + driver.getSessionId() + " for " + key);
+                leased.put(driver, key);
+                return driver;
+            }
+            utils.log().info("Evicting broken session for " + key);
+            quitQuietly(driver);
+        }
+
+        utils.log().info("No warm session available for " + key + ", creating a new one");
+        driver = CapabilitiesManager.getCaps();
+        udids.put(driver, new GlobalParams().getUDID());
+        leased.put(driver, key);
+        return driver;
+    }
+
+    /**
+     * Pre-creates sessions for the device of the current thread and parks them in the pool.
+     *
+     * @param sessions the number of idle sessions the pool should hold for this device
+     * @throws Exception if a session could not be created
+     */
+    public void warmUp(int sessions) throws Exception {
+        String key = getSessionKey();
+        BlockingDeque<AppiumDriver> pool = idle.computeIfAbsent(key, k -> new LinkedBlockingDeque<>());
+        while (pool.size() < sessions) {
+            utils.log().info("Warming up session for " + key);
+            AppiumDriver driver = CapabilitiesManager.getCaps();
+            udids.put(driver, new GlobalParams().getUDID());
+            pool.offerLast(driver);
+        }
+    }
+
+    /**
+     * Returns a leased session to the pool so that the next runner for the same device can reuse it.
+     *
+     * @param driver the session previously obtained through {@link #lease()}
+     */
+    public void giveBack(AppiumDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        String key = leased.remove(driver);
+        if (key == null) {
+            key = getSessionKey();
+        }
+        idle.computeIfAbsent(key, k -> new LinkedBlockingDeque<>()).offerFirst(driver);
+        utils.log().info("Session " + driver.getSessionId() + " returned to the pool for " + key);
+    }
+
+    /**
+     * Removes a session from the pool and quits it.
+     *
+     * @param driver the session to evict
+     */
+    public void evict(AppiumDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        leased.remove(driver);
+        idle.values().forEach(sessions -> sessions.remove(driver));
+        quitQuietly(driver);
+    }
+
+    /**
+     * Quits every idle and leased session. This is meant to be called once at the end of the run.
+     */
+    public void shutdown() {
+        List<AppiumDriver> sessions = new ArrayList<>(leased.keySet());
+        leased.clear();
+        idle.values().forEach(pool -> pool.drainTo(sessions));
+        idle.clear();
+        utils.log().info("Shutting down driver pool with " + sessions.size() + " session(s)");
+        sessions.forEach(this::quitQuietly);
+    }
+
+    /**
+     * Checks that a session is still alive and that the application under test is in the foreground.
+     * An application that is running in the background or not running at all is activated again,
+     * as that is much cheaper than a new session.
+     *
+     * @param driver the session to check
+     * @return true if the session can be reused, false if it must be evicted
+     */
+    boolean isHealthy(AppiumDriver driver) {
+        try {
+            if (driver.getSessionId() == null) {
+                return false;
+            }
+            String appId = new DriverManager().getAppId(driver.getCapabilities());
+            if (appId == null) {
+                return true;
+            }
+            ApplicationState state = ((InteractsWithApps) driver).queryAppState(appId);
+            if (state != ApplicationState.RUNNING_IN_FOREGROUND) {
+                utils.log().info("App state is " + state + ", activating " + appId);
+                ((InteractsWithApps) driver).activateApp(appId);
+            }
+            return true;
+        } catch (Exception e) {
+            utils.log().error("Health check failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void quitQuietly(AppiumDriver driver) {
+        try {
+            new ServerPool().sessionEnded(driver.getSessionId());
+            ProductCatalogue.sessionEnded(driver.getSessionId());
+            driver.quit();
+        } catch (Exception e) {
+            utils.log().error("Error while quitting Appium driver: " + e.getMessage());
+        } finally {
+            String udid = udids.remove(driver);
+            if (udid != null && !udids.containsValue(udid)) {
+                new PortAllocator().release(udid);
+            }
+        }
+    }
+}
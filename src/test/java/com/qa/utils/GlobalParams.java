@@ -1,5 +1,7 @@
 package com.qa.utils;
 
+import java.util.Map;
+
 /**
  * The GlobalParams class manages thread-local storage for a set of global parameters
  * that are commonly used to configure platform-specific settings for devices. These parameters
@@ -35,6 +37,13 @@ public class GlobalParams {
         return platformName.get();
     }
 
+    /**
+     * @return the platform of the current thread, resolved from its platform name
+     */
+    public Platform getPlatform(){
+        return Platform.of(platformName.get());
+    }
+
     public String getUDID() {
         return udid.get();
     }
@@ -83,6 +92,35 @@ public class GlobalParams {
         webkitDebugProxyPort.set(webkitDebugProxyPort2);
     }
 
+    /**
+     * Initializes the global parameters of the current thread from a set of named parameters, such as the
+     * parameters of a {@code <test>} in testng.xml. Ports that are not given are leased from the PortAllocator.
+     *
+     * @param parameters the parameters keyed by name (platformName, udid, deviceName, systemPort, ...)
+     */
+    public void initializeGlobalParams(Map<String, String> parameters){
+        GlobalParams params = new GlobalParams();
+
+        params.setPlatformName(parameters.get("platformName"));
+        params.setUDID(parameters.get("udid"));
+        params.setDeviceName(parameters.get("deviceName"));
+
+        switch(String.valueOf(params.getPlatformName())){
+            case "Android":
+                params.setSystemPort(portOrLease(parameters.get("systemPort"), 0));
+                params.setChromeDriverPort(portOrLease(parameters.get("chromeDriverPort"), 1));
+                break;
+
+            case "iOS":
+                params.setWdaLocalPort(portOrLease(parameters.get("wdaLocalPort"), 0));
+                params.setWebkitDebugProxyPort(portOrLease(parameters.get("webkitDebugProxyPort"), 1));
+                break;
+
+            default:
+                throw new IllegalStateException("Invalid Platform Name");
+        }
+    }
+
     /**
      * Initializes the global parameters required for the application to interact with
      * a mobile platform (e.g., Android or iOS). The method retrieves the values for
@@ -97,6 +135,8 @@ public class GlobalParams {
      * For iOS:
      * - Sets the WDA local port and WebKit debug proxy port.
      *
+     * Ports that are not given as system properties are leased from the PortAllocator.
+     *
      * If an unsupported platform name is provided, the method throws an
      * {@code IllegalStateException}.
      */
@@ -110,13 +150,13 @@ public class GlobalParams {
 
         switch(params.getPlatformName()){
             case "Android":
-                params.setSystemPort(System.getProperty("systemPort", "10000"));
-                params.setChromeDriverPort(System.getProperty("chromeDriverPort", "11000"));
+                params.setSystemPort(portOrLease(System.getProperty("systemPort"), 0));
+                params.setChromeDriverPort(portOrLease(System.getProperty("chromeDriverPort"), 1));
                 break;
 
             case "iOS":
-                params.setWdaLocalPort(System.getProperty("wdaLocalPort", "10001"));
-                params.setWebkitDebugProxyPort(System.getProperty("webkitDebugProxyPort", "11001"));
+                params.setWdaLocalPort(portOrLease(System.getProperty("wdaLocalPort"), 0));
+                params.setWebkitDebugProxyPort(portOrLease(System.getProperty("webkitDebugProxyPort"), 1));
                 break;
 
             default:
@@ -124,4 +164,19 @@ public class GlobalParams {
         }
     }
 
+    /**
+     * Returns the given port, or leases one for the device of the current thread if it is not a port number
+     * (e.g. missing, or the platform placeholder of an optional TestNG parameter).
+     *
+     * @param port the configured port, may be null
+     * @param index the position of the port in the block leased for the device
+     * @return the port to use
+     */
+    private String portOrLease(String port, int index) {
+        if (port != null && port.matches("\\d+")) {
+            return port;
+        }
+        return String.valueOf(new PortAllocator().lease(getUDID(), 2)[index]);
+    }
+
 }
@@ -0,0 +1,244 @@
+package com.qa.utils;
+
+import io.appium.java_client.MobileCommand;
+import io.appium.java_client.remote.AppiumCommandExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.WebSocket;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The InstrumentedCommandExecutor class sends the commands of a driver through one HTTP client shared by all
+ * sessions, so the connections to the Appium servers are kept alive and reused across sessions instead of every
+ * driver opening its own pool.
+ *
+ * The read timeout depends on the command: session creation and deletion, long running commands (scripts,
+ * app installs, file transfers, screen recordings) and all other commands each have their own timeout.
+ * Request and response bodies can be gzip compressed. The latency of every command is recorded in the
+ * CommandLatencyHistograms of the device, which are logged at the end of the suite.
+ *
+ * Settings in config.properties (timeouts in seconds): httpConnectTimeout, httpReadTimeout,
+ * httpLongCommandTimeout, httpSessionTimeout and httpGzip.
+ */
+public class InstrumentedCommandExecutor extends AppiumCommandExecutor {
+    private static final Set<String> SESSION_COMMANDS = Set.of("newSession", "quit");
+    private static final Set<String> LONG_COMMANDS = Set.of("executeScript", "executeAsyncScript", "installApp",
+            "removeApp", "pushFile", "pullFile", "pullFolder", "startRecordingScreen", "stopRecordingScreen",
+            "runAppInBackground");
+    // Restricted by java.net.http, or describing the connection rather than the request
+    private static final Set<String> SKIPPED_HEADERS = Set.of("connection", "content-length", "expect", "host",
+            "keep-alive", "transfer-encoding", "upgrade");
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private static final ThreadLocal<String> currentCommand = new ThreadLocal<>();
+    private static Settings settings;
+
+    private final String device;
+
+    static TestUtils utils = new TestUtils();
+
+    private static final class Settings {
+        private final Duration readTimeout;
+        private final Duration longCommandTimeout;
+        private final Duration sessionTimeout;
+        private final boolean gzip;
+        private final java.net.http.HttpClient client;
+
+        private Settings(Properties props) {
+            readTimeout = Duration.ofSeconds(Long.parseLong(props.getProperty("httpReadTimeout", "120")));
+            longCommandTimeout = Duration.ofSeconds(Long.parseLong(props.getProperty("httpLongCommandTimeout", "300")));
+            sessionTimeout = Duration.ofSeconds(Long.parseLong(props.getProperty("httpSessionTimeout", "600")));
+            gzip = Boolean.parseBoolean(props.getProperty("httpGzip", "false"));
+            client = java.net.http.HttpClient.newBuilder()
+                    .version(java.net.http.HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(Long.parseLong(props.getProperty("httpConnectTimeout", "10"))))
+                    .build();
+        }
+
+        private Duration timeoutOf(String command) {
+            if (command != null && SESSION_COMMANDS.contains(command)) {
+                return sessionTimeout;
+            }
+            if (command != null && LONG_COMMANDS.contains(command)) {
+                return longCommandTimeout;
+            }
+            return readTimeout;
+        }
+    }
+
+    /**
+     * Creates an executor for the commands of the driver of the current thread's device.
+     *
+     * @param url the URL of the Appium server
+     * @throws IOException if the config properties could not be loaded
+     */
+    public InstrumentedCommandExecutor(URL url) throws IOException {
+        super(MobileCommand.commandRepository, url, new PooledClientFactory(getSettings()));
+        this.device = new GlobalParams().getUDID();
+    }
+
+    @Override
+    public Response execute(Command command) throws WebDriverException {
+        currentCommand.set(command.getName());
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Response response = super.execute(command);
+            failed = false;
+            return response;
+        } finally {
+            currentCommand.remove();
+            long nanos = System.nanoTime() - start;
+            new CommandLatencyHistograms().record(device, command.getName(), nanos, failed);
+            new ThreadTimings().driverCommand(nanos);
+        }
+    }
+
+    private static synchronized Settings getSettings() throws IOException {
+        if (settings == null) {
+            settings = new Settings(new PropertyManager().getProps());
+        }
+        return settings;
+    }
+
+    private static final class PooledClientFactory implements HttpClient.Factory {
+        private final Settings settings;
+
+        private PooledClientFactory(Settings settings) {
+            this.settings = settings;
+        }
+
+        @Override
+        public HttpClient createClient(ClientConfig config) {
+            return new PooledHttpClient(config, settings);
+        }
+    }
+
+    /**
+     * A Selenium HttpClient on the shared java.net.http client. Closing it leaves the shared connections open.
+     */
+    private static final class PooledHttpClient implements HttpClient {
+        private final ClientConfig config;
+        private final Settings settings;
+        private HttpClient socketClient;
+
+        private PooledHttpClient(ClientConfig config, Settings settings) {
+            this.config = config;
+            this.settings = settings;
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest req) throws UncheckedIOException {
+            URI uri = toUri(req);
+            java.net.http.HttpRequest.Builder request = java.net.http.HttpRequest.newBuilder(uri)
+                    .timeout(settings.timeoutOf(currentCommand.get()));
+            req.forEachHeader((name, value) -> {
+                if (!SKIPPED_HEADERS.contains(name.toLowerCase())) {
+                    request.header(name, value);
+                }
+            });
+            byte[] body = Contents.bytes(req.getContent());
+            if (settings.gzip) {
+                request.header("Accept-Encoding", "gzip");
+                if (body.length >= GZIP_MIN_BYTES) {
+                    body = gzip(body);
+                    request.header("Content-Encoding", "gzip");
+                }
+            }
+            request.method(req.getMethod().toString(), body.length == 0
+                    ? java.net.http.HttpRequest.BodyPublishers.noBody()
+                    : java.net.http.HttpRequest.BodyPublishers.ofByteArray(body));
+
+            java.net.http.HttpResponse<byte[]> response;
+            try {
+                response = settings.client.send(request.build(), java.net.http.HttpResponse.BodyHandlers.ofByteArray());
+            } catch (HttpTimeoutException e) {
+                throw new TimeoutException("No response to " + req.getMethod() + " " + uri + " within "
+                        + settings.timeoutOf(currentCommand.get()), e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WebDriverException("Interrupted while waiting for " + req.getMethod() + " " + uri, e);
+            }
+
+            boolean gzipped = "gzip".equalsIgnoreCase(response.headers().firstValue("Content-Encoding").orElse(""));
+            HttpResponse res = new HttpResponse().setStatus(response.statusCode()).setTargetHost(uri.toString());
+            response.headers().map().forEach((name, values) -> {
+                if (!name.startsWith(":") && !(gzipped && name.equalsIgnoreCase("Content-Encoding"))
+                        && !SKIPPED_HEADERS.contains(name.toLowerCase())) {
+                    values.forEach(value -> res.addHeader(name, value));
+                }
+            });
+            res.setContent(Contents.bytes(gzipped ? gunzip(response.body()) : response.body()));
+            return res;
+        }
+
+        @Override
+        public synchronized WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            // Web sockets are rare (BiDi, log streams), they keep the default client
+            if (socketClient == null) {
+                socketClient = HttpClient.Factory.createDefault().createClient(config);
+            }
+            return socketClient.openSocket(request, listener);
+        }
+
+        @Override
+        public synchronized void close() {
+            if (socketClient != null) {
+                socketClient.close();
+            }
+        }
+
+        private URI toUri(HttpRequest req) {
+            String base = config.baseUri().toString();
+            StringBuilder uri = new StringBuilder(base.endsWith("/") ? base.substring(0, base.length() - 1) : base)
+                    .append(req.getUri());
+            StringBuilder query = new StringBuilder();
+            req.forEachQueryParameter((name, value) -> query.append(query.length() == 0 ? "?" : "&")
+                    .append(URLEncoder.encode(name, StandardCharsets.UTF_8)).append('=')
+                    .append(URLEncoder.encode(value, StandardCharsets.UTF_8)));
+            return URI.create(uri.append(query).toString());
+        }
+
+        private byte[] gzip(byte[] body) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+
+        private byte[] gunzip(byte[] body) {
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.qa.utils;
+
+import com.qa.pages.BasePage;
+import com.qa.pages.PageMetadataCache;
+import com.qa.pages.PageSnapshot;
+import org.apache.logging.log4j.LogManager;
+import org.openqa.selenium.By;
+import org.w3c.dom.Element;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The LocatorAudit class reviews the locators of the page objects in com.qa.pages and fails when a new locator
+ * is more expensive than the cost budget. It is run by the locator-audit Maven profile:
+ * {@code mvn test-compile -P locator-audit}.
+ *
+ * Every locator gets a heuristic cost: accessibility ids and ids are cheapest, predicates, class chains and
+ * UiSelectors come next, and XPath is the most expensive, more so with descendant searches, reverse axes,
+ * wildcards and positions. When a page source was recorded for the page (pagesources/&lt;platform&gt;/&lt;Page&gt;.xml
+ * under the test resources), the locator is also evaluated against it, to measure its local evaluation time
+ * and match count, and to suggest a faster locator that is verified to match the same, unique element. Save a
+ * page source from the Appium inspector or {@code driver.getPageSource()} to enable it for a page.
+ *
+ * Locators already over budget are listed in the baseline file, so only new ones fail the audit. Arguments:
+ * {@code --budget <cost>}, {@code --baseline <file>}, {@code --sources <dir>} and {@code --write-baseline}.
+ * The audit logs to the console only.
+ */
+public class LocatorAudit {
+    private static final String[] PLATFORMS = {"Android", "iOS"};
+    private static final Pattern XPATH_STEP_ATTRIBUTE = Pattern.compile(
+            "^//([\\w.*]+)\\[@([\\w-]+)\\s*=\\s*['\"]([^'\"]*)['\"]\\]$");
+    private static final Pattern XPATH_PARENT_CHILD = Pattern.compile(
+            "^//([\\w.]+)\\[@([\\w-]+)\\s*=\\s*['\"]([^'\"]*)['\"]\\]/(?:child::)?([\\w.]+)\\[(\\d+)\\]$");
+
+    int budget = 15;
+    Path baselineFile = Paths.get("src/test/resources/locator-audit-baseline.txt");
+    Path sourcesDir = Paths.get("src/test/resources/pagesources");
+    boolean writeBaseline;
+
+    TestUtils utils = new TestUtils();
+
+    public static void main(String[] args) throws Exception {
+        LocatorAudit audit = new LocatorAudit();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--budget":
+                    audit.budget = Integer.parseInt(args[++i]);
+                    break;
+                case "--baseline":
+                    audit.baselineFile = Paths.get(args[++i]);
+                    break;
+                case "--sources":
+                    audit.sourcesDir = Paths.get(args[++i]);
+                    break;
+                case "--write-baseline":
+                    audit.writeBaseline = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        try {
+            audit.run();
+        } finally {
+            // Loggers are asynchronous: flush them and stop their thread before exec:java tears the classloader down
+            LogManager.shutdown();
+        }
+    }
+
+    /**
+     * Audits every locator and fails if a locator that is not in the baseline exceeds the budget.
+     *
+     * @throws IOException if the baseline or a recorded page source could not be read
+     * @throws IllegalStateException if new locators exceed the budget
+     */
+    public void run() throws IOException {
+        Set<String> baseline = new TreeSet<>();
+        if (Files.exists(baselineFile)) {
+            for (String line : Files.readAllLines(baselineFile, StandardCharsets.UTF_8)) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    baseline.add(line.trim());
+                }
+            }
+        }
+
+        Set<String> overBudget = new TreeSet<>();
+        List<String> failures = new ArrayList<>();
+        for (Class<?> pageClass : findPageClasses()) {
+            for (String platformName : PLATFORMS) {
+                PageSnapshot recording = loadRecording(pageClass, platformName);
+                for (Map.Entry<Field, By> entry : new PageMetadataCache().getLocators(pageClass, platformName).entrySet()) {
+                    String key = entry.getKey().getDeclaringClass().getSimpleName() + "." + entry.getKey().getName()
+                            + ":" + platformName;
+                    if (!entry.getKey().getDeclaringClass().equals(pageClass)) {
+                        continue;
+                    }
+                    int cost = audit(key, entry.getValue(), platformName, recording);
+                    if (cost > budget) {
+                        overBudget.add(key);
+                        if (!baseline.contains(key)) {
+                            failures.add(key + " costs " + cost);
+                        }
+                    }
+                }
+            }
+        }
+
+        if (writeBaseline) {
+            List<String> lines = new ArrayList<>();
+            lines.add("# Locators over the locator audit budget when the audit was introduced; remove entries once fixed");
+            lines.addAll(overBudget);
+            Files.write(baselineFile, lines, StandardCharsets.UTF_8);
+            utils.log().info("Wrote " + overBudget.size() + " locator(s) to " + baselineFile);
+            return;
+        }
+        for (String key : baseline) {
+            if (!overBudget.contains(key)) {
+                utils.log().info("Baseline entry " + key + " is within budget now and can be removed");
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("Locators over the cost budget of " + budget + ": " + failures);
+        }
+        utils.log().info("Locator audit passed with a cost budget of " + budget);
+    }
+
+    private int audit(String key, By by, String platformName, PageSnapshot recording) {
+        int cost = cost(by);
+        String report = report(key, by, platformName, recording);
+        if (cost > budget) {
+            utils.log().warn(report);
+        } else {
+            utils.log().info(report);
+        }
+        return cost;
+    }
+
+    /**
+     * Describes the cost of a locator, with its evaluation time and match count in the recorded page source if
+     * there is one, and a cheaper locator if one can be suggested.
+     */
+    String report(String key, By by, String platformName, PageSnapshot recording) {
+        String strategy = ((By.Remotable) by).getRemoteParameters().using();
+        String value = String.valueOf(((By.Remotable) by).getRemoteParameters().value()).trim();
+        int cost = cost(strategy, value);
+
+        StringBuilder report = new StringBuilder(key + " " + strategy + " \"" + value + "\" cost=" + cost);
+        String suggestion = null;
+        if (recording != null && recording.supports(by)) {
+            long start = System.nanoTime();
+            List<Element> matches = null;
+            for (int i = 0; i < 20; i++) {
+                matches = recording.findElements(by);
+            }
+            report.append(" measured=").append((System.nanoTime() - start) / 20_000).append("us matches=")
+                    .append(matches.size());
+            if (matches.size() == 1) {
+                suggestion = suggestFromRecording(matches.get(0), platformName, recording);
+            }
+        }
+        if (suggestion == null && "xpath".equals(strategy)) {
+            suggestion = suggestFromXPath(value, platformName);
+        }
+        if (suggestion != null) {
+            String[] parts = suggestion.split(": ", 2);
+            int suggestedCost = cost(parts[0], parts[1]);
+            if (suggestedCost < cost) {
+                report.append(" -> suggest ").append(suggestion).append(" cost=").append(suggestedCost);
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Heuristic cost of a locator, relative to a lookup by accessibility id.
+     */
+    int cost(By by) {
+        return cost(((By.Remotable) by).getRemoteParameters().using(),
+                String.valueOf(((By.Remotable) by).getRemoteParameters().value()).trim());
+    }
+
+    /**
+     * Heuristic cost of a locator, relative to a lookup by accessibility id.
+     */
+    int cost(String strategy, String value) {
+        switch (strategy) {
+            case "accessibility id":
+            case "id":
+                return 1;
+            case "-ios predicate string":
+            case "-ios class chain":
+                return 3;
+            case "-android uiautomator":
+                return value.contains("UiScrollable") ? 8 : 4;
+            case "class name":
+                return 5;
+            case "xpath":
+                int cost = 10;
+                cost += count(value, "//") * 3;
+                cost += value.replaceAll("\\[[^\\]]*\\]", "").split("/+").length - 1;
+                cost += count(value, "parent::") * 6 + count(value, "ancestor") * 6 + count(value, "preceding") * 6
+                        + count(value, "following") * 6 + count(value, "/..") * 6;
+                cost += count(value, "*") * 2;
+                cost += countMatches(value, "\\[\\d+\\]");
+                return cost;
+            default:
+                return 10;
+        }
+    }
+
+    private String suggestFromRecording(Element element, String platformName, PageSnapshot recording) {
+        boolean iOS = "iOS".equals(platformName);
+        String accessibilityId = element.getAttribute(iOS ? "name" : "content-desc");
+        if (!accessibilityId.isEmpty() && recording.findByAccessibilityId(accessibilityId).size() == 1) {
+            return "accessibility id: " + accessibilityId;
+        }
+        if (iOS) {
+            String label = element.getAttribute("label");
+            if (!label.isEmpty()) {
+                return "-ios class chain: **/" + element.getTagName() + "[`label == \"" + label + "\"`]";
+            }
+        } else {
+            String resourceId = element.getAttribute("resource-id");
+            if (!resourceId.isEmpty() && recording.findElements(By.id(resourceId)).size() == 1) {
+                return "id: " + resourceId;
+            }
+            String text = element.getAttribute("text");
+            if (!text.isEmpty() && recording.findElements(By.xpath("//*[@text=\"" + text + "\"]")).size() == 1) {
+                return "-android uiautomator: new UiSelector().text(\"" + text + "\")";
+            }
+        }
+        return null;
+    }
+
+    private String suggestFromXPath(String xpath, String platformName) {
+        boolean iOS = "iOS".equals(platformName);
+        Matcher single = XPATH_STEP_ATTRIBUTE.matcher(xpath);
+        if (single.matches()) {
+            String type = single.group(1);
+            String attribute = single.group(2);
+            String value = single.group(3);
+            if (attribute.equals(iOS ? "name" : "content-desc")) {
+                return "accessibility id: " + value;
+            }
+            if (!iOS && attribute.equals("resource-id")) {
+                return "id: " + value;
+            }
+            if (!iOS && attribute.equals("text")) {
+                return "-android uiautomator: new UiSelector()" + ("*".equals(type) ? "" : ".className(\"" + type + "\")")
+                        + ".text(\"" + value + "\")";
+            }
+            if (iOS) {
+                return "-ios predicate string: " + ("*".equals(type) ? "" : "type == '" + type + "' AND ") + attribute
+                        + " == '" + value + "'";
+            }
+        }
+        Matcher parentChild = XPATH_PARENT_CHILD.matcher(xpath);
+        if (iOS && parentChild.matches()) {
+            return "-ios class chain: **/" + parentChild.group(1) + "[`" + parentChild.group(2) + " == \""
+                    + parentChild.group(3) + "\"`]/" + parentChild.group(4) + "[" + parentChild.group(5) + "]";
+        }
+        return null;
+    }
+
+    PageSnapshot loadRecording(Class<?> pageClass, String platformName) throws IOException {
+        Path recording = sourcesDir.resolve(platformName).resolve(pageClass.getSimpleName() + ".xml");
+        if (!Files.exists(recording)) {
+            return null;
+        }
+        return PageSnapshot.parse(new String(Files.readAllBytes(recording), StandardCharsets.UTF_8), platformName);
+    }
+
+    private List<Class<?>> findPageClasses() throws IOException {
+        String packagePath = BasePage.class.getPackage().getName().replace('.', '/');
+        URL url = BasePage.class.getClassLoader().getResource(packagePath);
+        if (url == null || !"file".equals(url.getProtocol())) {
+            throw new IllegalStateException("Page classes must be on the classpath as a directory: " + url);
+        }
+        File[] files;
+        try {
+            files = new File(url.toURI()).listFiles((dir, name) -> name.endsWith(".class") && !name.contains("$"));
+        } catch (URISyntaxException e) {
+            throw new IOException(e);
+        }
+
+        List<Class<?>> pageClasses = new ArrayList<>();
+        for (File file : files == null ? new File[0] : files) {
+            String className = BasePage.class.getPackage().getName() + "."
+                    + file.getName().substring(0, file.getName().length() - ".class".length());
+            try {
+                Class<?> c = Class.forName(className, false, BasePage.class.getClassLoader());
+                if (BasePage.class.isAssignableFrom(c) && !Modifier.isAbstract(c.getModifiers())) {
+                    pageClasses.add(c);
+                }
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            }
+        }
+        pageClasses.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return pageClasses;
+    }
+
+    private int count(String s, String token) {
+        int count = 0;
+        for (int i = s.indexOf(token); i >= 0; i = s.indexOf(token, i + token.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    private int countMatches(String s, String regex) {
+        Matcher matcher = Pattern.compile(regex).matcher(s);
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+}
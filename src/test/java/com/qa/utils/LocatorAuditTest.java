@@ -0,0 +1,127 @@
+package com.qa.utils;
+
+import com.qa.pages.LoginPage;
+import com.qa.pages.PageMetadataCache;
+import com.qa.pages.PageSnapshot;
+import io.appium.java_client.AppiumBy;
+import org.openqa.selenium.By;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
+
+/**
+ * Tests the LocatorAudit against the page objects and the page source recorded for the Android LoginPage.
+ */
+public class LocatorAuditTest {
+
+    @Test
+    public void locatorsAreScoredByStrategy() {
+        LocatorAudit audit = new LocatorAudit();
+
+        assertEquals(audit.cost(AppiumBy.accessibilityId("test-LOGIN")), 1);
+        assertEquals(audit.cost(AppiumBy.iOSNsPredicateString("name == 'test-LOGIN'")), 3);
+        assertEquals(audit.cost(AppiumBy.androidUIAutomator("new UiSelector().text(\"LOGIN\")")), 4);
+        assertEquals(audit.cost(AppiumBy.androidUIAutomator(
+                "new UiScrollable(new UiSelector().scrollable(true)).scrollIntoView(new UiSelector().text(\"LOGIN\"))")), 8);
+        assertEquals(audit.cost(locator("errTxt")), 15);
+        assertTrue(audit.cost(By.xpath("//*[@text=\"LOGIN\"]/parent::*")) > audit.budget);
+    }
+
+    @Test
+    public void recordedLocatorsAreMeasuredAndGetAFasterSuggestion() throws Exception {
+        LocatorAudit audit = new LocatorAudit();
+        PageSnapshot recording = audit.loadRecording(LoginPage.class, "Android");
+        assertNotNull(recording, "the Android LoginPage page source should be recorded");
+
+        String errTxt = audit.report("LoginPage.errTxt:Android", locator("errTxt"), "Android", recording);
+        String loginBtn = audit.report("LoginPage.loginBtn:Android", locator("loginBtn"), "Android", recording);
+
+        assertTrue(errTxt.matches(".* cost=15 measured=\\d+us matches=1 -> suggest .*"), errTxt);
+        assertTrue(errTxt.endsWith("-> suggest -android uiautomator: new UiSelector().text(\"Username is required\") cost=4"),
+                errTxt);
+        assertTrue(loginBtn.matches("LoginPage.loginBtn:Android accessibility id \"test-LOGIN\" cost=1 measured=\\d+us matches=1"),
+                loginBtn);
+    }
+
+    @Test
+    public void locatorsWithoutARecordingAreOnlyScored() {
+        By xpath = By.xpath("//android.widget.TextView[@text=\"LOGIN\"]");
+
+        String report = new LocatorAudit().report("Page.loginTxt:Android", xpath, "Android", null);
+
+        assertEquals(report, "Page.loginTxt:Android xpath \"//android.widget.TextView[@text=\"LOGIN\"]\" cost=14"
+                + " -> suggest -android uiautomator: new UiSelector().className(\"android.widget.TextView\").text(\"LOGIN\") cost=4");
+    }
+
+    @Test
+    public void baselinedLocatorsPassTheAudit() throws Exception {
+        new LocatorAudit().run();
+    }
+
+    @Test
+    public void newLocatorsOverTheBudgetFailTheAudit() throws Exception {
+        Path emptyBaseline = Files.createTempFile("locator-audit-baseline", ".txt");
+        try {
+            LocatorAudit audit = new LocatorAudit();
+            audit.baselineFile = emptyBaseline;
+
+            IllegalStateException e = expectThrows(IllegalStateException.class, audit::run);
+
+            assertTrue(e.getMessage().startsWith("Locators over the cost budget of 15: "), e.getMessage());
+            assertTrue(e.getMessage().contains("ProductsPage.titleTxt:iOS costs "), e.getMessage());
+            assertFalse(e.getMessage().contains("LoginPage.errTxt:Android"), e.getMessage());
+        } finally {
+            Files.delete(emptyBaseline);
+        }
+    }
+
+    @Test
+    public void aLowerBudgetFailsTheLocatorsAtTheOldBudget() {
+        LocatorAudit audit = new LocatorAudit();
+        audit.budget = 14;
+
+        IllegalStateException e = expectThrows(IllegalStateException.class, audit::run);
+
+        assertTrue(e.getMessage().contains("LoginPage.errTxt:Android costs 15"), e.getMessage());
+    }
+
+    @Test
+    public void writtenBaselineListsTheLocatorsOverBudget() throws Exception {
+        Path baseline = Files.createTempFile("locator-audit-baseline", ".txt");
+        try {
+            LocatorAudit audit = new LocatorAudit();
+            audit.baselineFile = baseline;
+            audit.writeBaseline = true;
+            audit.run();
+
+            List<String> written = Files.readAllLines(baseline, StandardCharsets.UTF_8);
+            List<String> committed = Files.readAllLines(new LocatorAudit().baselineFile, StandardCharsets.UTF_8);
+            assertEquals(written, committed);
+
+            audit.writeBaseline = false;
+            audit.run();
+        } finally {
+            Files.delete(baseline);
+        }
+    }
+
+    private By locator(String fieldName) {
+        for (Map.Entry<Field, By> entry : new PageMetadataCache().getLocators(LoginPage.class, "Android").entrySet()) {
+            if (entry.getKey().getName().equals(fieldName)) {
+                return entry.getValue();
+            }
+        }
+        throw new IllegalArgumentException("No Android locator for LoginPage." + fieldName);
+    }
+}
@@ -0,0 +1,37 @@
+package com.qa.utils;
+
+/**
+ * The platforms the framework runs on. Page objects resolve the platform once, when they are constructed,
+ * instead of comparing the platform name of GlobalParams on every call.
+ */
+public enum Platform {
+    ANDROID("Android"),
+    IOS("iOS");
+
+    private final String platformName;
+
+    Platform(String platformName) {
+        this.platformName = platformName;
+    }
+
+    /**
+     * @return the platform name as used in the capabilities and GlobalParams, Android or iOS
+     */
+    public String getPlatformName() {
+        return platformName;
+    }
+
+    /**
+     * @param platformName the platform name, Android or iOS
+     * @return the platform with the given name
+     * @throws IllegalStateException if the platform name is not supported
+     */
+    public static Platform of(String platformName) {
+        for (Platform platform : values()) {
+            if (platform.platformName.equals(platformName)) {
+                return platform;
+            }
+        }
+        throw new IllegalStateException("Invalid Platform Name: " + platformName);
+    }
+}
@@ -0,0 +1,128 @@
+package com.qa.utils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The PortAllocator class leases blocks of free, non-colliding ports to devices, so that many devices
+ * can run on the same host without hand-editing the ports in testng.xml.
+ *
+ * Ports are taken from the range configured in config.properties (portRangeStart and portRangeEnd).
+ * A port is claimed with an atomic add to the set of leased ports and is then checked by binding it,
+ * so concurrent leases never hand out the same port. Blocks are leased per udid and the same block is
+ * returned for every lease of the same device until it is released. The DriverPool releases the block of a
+ * device when it quits the last session of that device, as a session may hold ports of the block that are only
+ * bound once it uses them (chromedriver, webkit debug proxy); the rest of the blocks are released at the end of
+ * the suite.
+ */
+public class PortAllocator {
+    private static final Set<Integer> leasedPorts = ConcurrentHashMap.newKeySet();
+    private static final Map<String, int[]> blocks = new ConcurrentHashMap<>();
+    private static final AtomicInteger cursor = new AtomicInteger();
+    private static final int[] range = loadRange();
+
+    TestUtils utils = new TestUtils();
+
+    /**
+     * Leases a block of ports for a device. Leasing again for the same device returns the same block.
+     *
+     * @param udid the unique device identifier the block is leased for
+     * @param size the number of ports in the block
+     * @return the leased ports
+     */
+    public int[] lease(String udid, int size) {
+        int[] leased = blocks.get(udid);
+        if (leased != null) {
+            return leased;
+        }
+        // The ports are probed outside of the map, so concurrent leases for other devices never wait on each other
+        int[] ports = new int[size];
+        int claimed = 0;
+        try {
+            for (; claimed < size; claimed++) {
+                ports[claimed] = nextFreePort();
+            }
+        } catch (RuntimeException e) {
+            // The ports claimed before the range ran out would otherwise stay leased without a block
+            for (int i = 0; i < claimed; i++) {
+                leasedPorts.remove(ports[i]);
+            }
+            throw e;
+        }
+        leased = blocks.putIfAbsent(udid, ports);
+        if (leased != null) {
+            // Another thread leased a block for the same device first
+            for (int port : ports) {
+                leasedPorts.remove(port);
+            }
+            return leased;
+        }
+        utils.log().info("Leased ports " + Arrays.toString(ports) + " for " + udid);
+        return ports;
+    }
+
+    /**
+     * Releases the block of ports leased for a device.
+     *
+     * @param udid the unique device identifier the block was leased for
+     */
+    public void release(String udid) {
+        int[] ports = blocks.remove(udid);
+        if (ports != null) {
+            for (int port : ports) {
+                leasedPorts.remove(port);
+            }
+            utils.log().info("Released ports " + Arrays.toString(ports) + " for " + udid);
+        }
+    }
+
+    /**
+     * Releases every leased block. This is meant to be called once at the end of the run.
+     */
+    public void releaseAll() {
+        blocks.keySet().forEach(this::release);
+    }
+
+    private int nextFreePort() {
+        int start = range[0];
+        int end = range[1];
+        int size = end - start + 1;
+        for (int attempt = 0; attempt < size; attempt++) {
+            int port = start + Math.floorMod(cursor.getAndIncrement(), size);
+            if (leasedPorts.add(port)) {
+                if (isAvailable(port)) {
+                    return port;
+                }
+                leasedPorts.remove(port);
+            }
+        }
+        throw new IllegalStateException("No free port left in range " + start + "-" + end);
+    }
+
+    private boolean isAvailable(int port) {
+        try (ServerSocket socket = new ServerSocket()) {
+            socket.setReuseAddress(false);
+            socket.bind(new InetSocketAddress(port));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int[] loadRange() {
+        try {
+            Properties props = new PropertyManager().getProps();
+            return new int[]{Integer.parseInt(props.getProperty("portRangeStart", "12000")),
+                    Integer.parseInt(props.getProperty("portRangeEnd", "12999"))};
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load config properties", e);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.qa.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The ScenarioLogIndex class extracts the logs of a scenario from the segment files written by the
+ * ScenarioSegmentAppender. The indexes of all devices are loaded once into a map from scenario id to the ranges of
+ * its lines, so a lookup is a map access and an extraction copies the ranges straight from their offsets, whatever
+ * the number and size of the segments.
+ *
+ * The segments of several runs can share a directory; an index holds the ranges of one run, the latest unless
+ * another is given.
+ *
+ * It can be run from the command line, e.g. with the test classpath:
+ * {@code java com.qa.utils.ScenarioLogIndex [--dir target/logs/segments] [--run <id>] [Login.feature:12 ...]}
+ * prints the logs of the given scenarios, or lists the runs and the indexed scenarios when none is given.
+ */
+public class ScenarioLogIndex {
+    static final String INDEX_FILE = "index.tsv";
+    private static final Pattern SEGMENT = Pattern.compile("segment-(\\d+)\\.log");
+
+    private final Map<String, List<Range>> ranges = new LinkedHashMap<>();
+    private final TreeSet<String> runs = new TreeSet<>();
+    private final String run;
+
+    /**
+     * The lines of a scenario in one segment file.
+     */
+    public static final class Range {
+        private final String device;
+        private final Path segment;
+        private final long offset;
+        private final long length;
+
+        private Range(String device, Path segment, long offset, long length) {
+            this.device = device;
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public String getDevice() {
+            return device;
+        }
+
+        public Path getSegment() {
+            return segment;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getLength() {
+            return length;
+        }
+    }
+
+    /**
+     * Loads the indexes of all devices for the latest run.
+     *
+     * @param directory the directory of the ScenarioSegmentAppender
+     * @throws IOException if an index could not be read
+     */
+    public ScenarioLogIndex(Path directory) throws IOException {
+        this(directory, null);
+    }
+
+    /**
+     * Loads the indexes of all devices for one run.
+     *
+     * @param directory the directory of the ScenarioSegmentAppender
+     * @param run the id of the run, or null for the latest run
+     * @throws IOException if an index could not be read
+     */
+    public ScenarioLogIndex(Path directory, String run) throws IOException {
+        Map<Path, List<String[]>> lines = new LinkedHashMap<>();
+        if (Files.isDirectory(directory)) {
+            List<Path> devices;
+            try (Stream<Path> files = Files.list(directory)) {
+                devices = files.filter(dir -> Files.isRegularFile(dir.resolve(INDEX_FILE))).sorted().toList();
+            }
+            for (Path dir : devices) {
+                List<String[]> entries = new ArrayList<>();
+                for (String line : Files.readAllLines(dir.resolve(INDEX_FILE), StandardCharsets.UTF_8)) {
+                    String[] fields = line.split("\t");
+                    if (fields.length == 5) {
+                        entries.add(fields);
+                        runs.add(fields[0]);
+                    }
+                }
+                lines.put(dir, entries);
+            }
+        }
+        // Run ids start with their start time, so the latest run sorts last
+        this.run = run != null ? run : runs.isEmpty() ? null : runs.last();
+
+        lines.forEach((dir, entries) -> {
+            for (String[] fields : entries) {
+                if (fields[0].equals(this.run)) {
+                    ranges.computeIfAbsent(fields[1], k -> new ArrayList<>()).add(new Range(
+                            dir.getFileName().toString(), dir.resolve(fields[2]), Long.parseLong(fields[3]),
+                            Long.parseLong(fields[4])));
+                }
+            }
+        });
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get("target/logs/segments");
+        String run = null;
+        List<String> scenarios = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--dir")) {
+                directory = Paths.get(args[++i]);
+            } else if (args[i].equals("--run")) {
+                run = args[++i];
+            } else {
+                scenarios.add(args[i]);
+            }
+        }
+
+        ScenarioLogIndex index = new ScenarioLogIndex(directory, run);
+        if (scenarios.isEmpty()) {
+            for (String indexedRun : index.getRuns()) {
+                System.out.println("run " + indexedRun + (indexedRun.equals(index.getRun()) ? " (shown)" : ""));
+            }
+            for (String scenario : new TreeSet<>(index.getScenarios())) {
+                System.out.println(scenario + "\t" + index.lookup(scenario).size() + " range(s)");
+            }
+            return;
+        }
+        for (String scenario : scenarios) {
+            if (index.lookup(scenario).isEmpty()) {
+                System.err.println("No logs indexed for " + scenario + " in run " + index.getRun() + " in "
+                        + directory);
+                continue;
+            }
+            index.copy(scenario, System.out);
+        }
+        System.out.flush();
+    }
+
+    /**
+     * @return the ids of the runs in the indexes, oldest first
+     */
+    public List<String> getRuns() {
+        return new ArrayList<>(runs);
+    }
+
+    /**
+     * @return the id of the run whose ranges are loaded, or null if the indexes are empty
+     */
+    public String getRun() {
+        return run;
+    }
+
+    /**
+     * @return the ids of the scenarios indexed for the run, e.g. {@code Login.feature:12}
+     */
+    public List<String> getScenarios() {
+        return new ArrayList<>(ranges.keySet());
+    }
+
+    /**
+     * @param scenario the id of a scenario, e.g. {@code Login.feature:12}
+     * @return the ranges of its lines, in the order they were written on every device
+     */
+    public List<Range> lookup(String scenario) {
+        return Collections.unmodifiableList(ranges.getOrDefault(scenario, Collections.emptyList()));
+    }
+
+    /**
+     * Copies the logs of a scenario, all ranges in order.
+     *
+     * @param scenario the id of a scenario
+     * @param out the stream to copy to
+     * @throws IOException if a segment could not be read
+     */
+    public void copy(String scenario, OutputStream out) throws IOException {
+        WritableByteChannel target = Channels.newChannel(out);
+        for (Range range : lookup(scenario)) {
+            try (FileChannel channel = FileChannel.open(range.segment, StandardOpenOption.READ)) {
+                long position = range.offset;
+                long end = range.offset + range.length;
+                while (position < end) {
+                    long copied = channel.transferTo(position, end - position, target);
+                    if (copied <= 0) {
+                        throw new IOException("Segment " + range.segment + " is shorter than its index");
+                    }
+                    position += copied;
+                }
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * @param scenario the id of a scenario
+     * @return the logs of the scenario
+     * @throws IOException if a segment could not be read
+     */
+    public String read(String scenario) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        copy(scenario, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    static String segmentName(int segment) {
+        return String.format("segment-%05d.log", segment);
+    }
+
+    static int segmentNumber(Path file) {
+        Matcher matcher = SEGMENT.matcher(file.getFileName().toString());
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+}
@@ -0,0 +1,196 @@
+package com.qa.utils;
+
+import com.qa.listeners.ScenarioLogContextPlugin;
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.Core;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.appender.AppenderLoggingException;
+import org.apache.logging.log4j.core.config.Property;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginElement;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The ScenarioSegmentAppender class is a log4j2 appender that writes the records logged during scenarios (tagged
+ * by the ScenarioLogContextPlugin) to segment files, one stream of segments per device, and records the offset
+ * and length of every scenario's lines in an index next to them:
+ *
+ * {@code <directory>/<device>/segment-00001.log}, {@code segment-00002.log}, ... and {@code index.tsv}
+ *
+ * Later runs continue the segment numbering and append to the index, whose lines start with the id of the run that
+ * wrote them (its start time and process id), so ScenarioLogIndex can tell the runs of a scenario apart.
+ *
+ * A device runs one scenario at a time, so the lines of a scenario are contiguous in its stream. A new segment is
+ * started when the current one reaches maxSegmentBytes, and a range never spans two segments. Records logged outside
+ * of scenarios are left to the other appenders. See ScenarioLogIndex to extract the logs of a scenario.
+ */
+@Plugin(name = "ScenarioSegments", category = Core.CATEGORY_NAME, elementType = Appender.ELEMENT_TYPE)
+public final class ScenarioSegmentAppender extends AbstractAppender {
+    static final String RUN_ID = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").format(LocalDateTime.now()) + "-"
+            + ProcessHandle.current().pid();
+
+    private final String runId;
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final Map<String, DeviceStream> streams = new HashMap<>();
+
+    /**
+     * The segments and index of one device, and the range of the scenario being written.
+     */
+    private final class DeviceStream {
+        private final Path dir;
+        private final Writer index;
+        private int segment;
+        private OutputStream out;
+        private long size;
+        private String scenario;
+        private long scenarioStart;
+
+        private DeviceStream(Path dir) throws IOException {
+            this.dir = Files.createDirectories(dir);
+            // Continues after the segments of earlier runs, the index is appended to
+            try (Stream<Path> files = Files.list(dir)) {
+                segment = files.map(ScenarioLogIndex::segmentNumber).max(Integer::compare).orElse(0);
+            }
+            index = Files.newBufferedWriter(dir.resolve(ScenarioLogIndex.INDEX_FILE), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            nextSegment();
+        }
+
+        private void write(String eventScenario, byte[] bytes, boolean endOfBatch) throws IOException {
+            if (size > 0 && size + bytes.length > maxSegmentBytes) {
+                endRange();
+                nextSegment();
+            }
+            if (!eventScenario.equals(scenario)) {
+                endRange();
+                scenario = eventScenario;
+                scenarioStart = size;
+            }
+            out.write(bytes);
+            size += bytes.length;
+            if (endOfBatch) {
+                out.flush();
+            }
+        }
+
+        // Indexes the lines written for the current scenario since the start of its range
+        private void endRange() throws IOException {
+            if (scenario != null && size > scenarioStart) {
+                out.flush();
+                index.write(runId + "\t" + scenario + "\t" + ScenarioLogIndex.segmentName(segment) + "\t" + scenarioStart + "\t"
+                        + (size - scenarioStart) + "\n");
+                index.flush();
+            }
+            scenarioStart = size;
+        }
+
+        private void nextSegment() throws IOException {
+            if (out != null) {
+                out.close();
+            }
+            segment++;
+            out = new BufferedOutputStream(Files.newOutputStream(dir.resolve(ScenarioLogIndex.segmentName(segment)),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), 64 * 1024);
+            size = 0;
+            scenarioStart = 0;
+        }
+
+        private void close() throws IOException {
+            endRange();
+            out.close();
+            index.close();
+        }
+    }
+
+    ScenarioSegmentAppender(String name, Filter filter, Layout<? extends Serializable> layout, Path directory,
+                            long maxSegmentBytes, String runId) {
+        super(name, filter, layout, true, Property.EMPTY_ARRAY);
+        this.runId = runId;
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+    }
+
+    /**
+     * @param name the name of the appender
+     * @param directory the directory of the device streams
+     * @param maxSegmentBytes the size at which a new segment is started
+     * @param layout the layout of the records, a pattern layout with the default pattern when not given
+     * @param filter an optional filter
+     * @return the appender
+     */
+    @PluginFactory
+    public static ScenarioSegmentAppender createAppender(
+            @PluginAttribute("name") String name,
+            @PluginAttribute(value = "directory", defaultString = "target/logs/segments") String directory,
+            @PluginAttribute(value = "maxSegmentBytes", defaultLong = 10 * 1024 * 1024) long maxSegmentBytes,
+            @PluginElement("Layout") Layout<? extends Serializable> layout,
+            @PluginElement("Filter") Filter filter) {
+        if (name == null) {
+            LOGGER.error("No name provided for ScenarioSegmentAppender");
+            return null;
+        }
+        return new ScenarioSegmentAppender(name, filter, layout != null ? layout : PatternLayout.createDefaultLayout(),
+                Paths.get(directory), maxSegmentBytes, RUN_ID);
+    }
+
+    @Override
+    public synchronized void append(LogEvent event) {
+        String scenario = event.getContextData().getValue(ScenarioLogContextPlugin.SCENARIO);
+        if (scenario == null) {
+            return;
+        }
+        String device = event.getContextData().getValue(ScenarioLogContextPlugin.DEVICE);
+        String key = device != null ? device.replaceAll("[^\\w.-]", "_") : "unknown";
+        try {
+            DeviceStream stream = streams.get(key);
+            if (stream == null) {
+                stream = new DeviceStream(directory.resolve(key));
+                streams.put(key, stream);
+            }
+            stream.write(scenario, getLayout().toByteArray(event), event.isEndOfBatch());
+        } catch (IOException e) {
+            throw new AppenderLoggingException("Failed to write the scenario log segment of " + key, e);
+        }
+    }
+
+    @Override
+    public boolean stop(long timeout, TimeUnit timeUnit) {
+        setStopping();
+        boolean stopped = super.stop(timeout, timeUnit, false);
+        synchronized (this) {
+            for (DeviceStream stream : streams.values()) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    LOGGER.error("Failed to close the scenario log segments in " + stream.dir, e);
+                }
+            }
+            streams.clear();
+        }
+        setStopped();
+        return stopped;
+    }
+}
@@ -0,0 +1,125 @@
+package com.qa.utils;
+
+import com.qa.listeners.ScenarioLogContextPlugin;
+import org.apache.commons.io.file.PathUtils;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.impl.Log4jLogEvent;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.util.SortedArrayStringMap;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests that the scenario logs written by the ScenarioSegmentAppender are found again by the ScenarioLogIndex.
+ */
+public class ScenarioSegmentAppenderTest {
+    private Path directory;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("segments");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() throws IOException {
+        PathUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void scenariosAreLookedUpByTheirId() throws IOException {
+        ScenarioSegmentAppender appender = newAppender("20261017-100000-1", 1024);
+        append(appender, "Login.feature:12", "emulator-5554", "login started");
+        append(appender, "Login.feature:12", "emulator-5554", "login done");
+        append(appender, "Products.feature:8", "emulator-5554", "products listed");
+        append(appender, "Login.feature:20", "iPhone 15", "invalid login");
+        appender.stop();
+
+        ScenarioLogIndex index = new ScenarioLogIndex(directory);
+
+        assertEquals(index.read("Login.feature:12"), "login started\nlogin done\n");
+        assertEquals(index.read("Products.feature:8"), "products listed\n");
+        assertEquals(index.read("Login.feature:20"), "invalid login\n");
+        assertEquals(index.lookup("Login.feature:20").get(0).getDevice(), "iPhone_15");
+        assertTrue(index.lookup("Unknown.feature:1").isEmpty());
+    }
+
+    @Test
+    public void scenariosSpanningSegmentsAreReadInOrder() throws IOException {
+        ScenarioSegmentAppender appender = newAppender("20261017-100000-1", 32);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            append(appender, "Login.feature:12", "emulator-5554", "line " + i);
+            expected.append("line ").append(i).append('\n');
+        }
+        append(appender, "Products.feature:8", "emulator-5554", "products listed");
+        appender.stop();
+
+        ScenarioLogIndex index = new ScenarioLogIndex(directory);
+
+        assertTrue(index.lookup("Login.feature:12").size() > 1);
+        assertEquals(index.read("Login.feature:12"), expected.toString());
+        assertEquals(index.read("Products.feature:8"), "products listed\n");
+    }
+
+    @Test
+    public void runsSharingTheDirectoryAreKeptApart() throws IOException {
+        ScenarioSegmentAppender first = newAppender("20261017-100000-1", 1024);
+        append(first, "Login.feature:12", "emulator-5554", "first run");
+        append(first, "Products.feature:8", "emulator-5554", "only in the first run");
+        first.stop();
+        ScenarioSegmentAppender second = newAppender("20261017-110000-2", 1024);
+        append(second, "Login.feature:12", "emulator-5554", "second run");
+        second.stop();
+
+        ScenarioLogIndex latest = new ScenarioLogIndex(directory);
+        ScenarioLogIndex earlier = new ScenarioLogIndex(directory, "20261017-100000-1");
+
+        assertEquals(latest.getRuns(), List.of("20261017-100000-1", "20261017-110000-2"));
+        assertEquals(latest.getRun(), "20261017-110000-2");
+        assertEquals(latest.read("Login.feature:12"), "second run\n");
+        assertTrue(latest.lookup("Products.feature:8").isEmpty());
+        assertEquals(earlier.read("Login.feature:12"), "first run\n");
+        assertEquals(earlier.read("Products.feature:8"), "only in the first run\n");
+    }
+
+    @Test
+    public void emptyDirectoryHasNoRun() throws IOException {
+        ScenarioLogIndex index = new ScenarioLogIndex(directory.resolve("missing"));
+
+        assertNull(index.getRun());
+        assertTrue(index.getScenarios().isEmpty());
+    }
+
+    private ScenarioSegmentAppender newAppender(String runId, long maxSegmentBytes) {
+        ScenarioSegmentAppender appender = new ScenarioSegmentAppender("ScenarioSegments", null,
+                PatternLayout.newBuilder().withPattern("%m%n").build(), directory, maxSegmentBytes, runId);
+        appender.start();
+        return appender;
+    }
+
+    private void append(ScenarioSegmentAppender appender, String scenario, String device, String message) {
+        SortedArrayStringMap contextData = new SortedArrayStringMap();
+        contextData.putValue(ScenarioLogContextPlugin.SCENARIO, scenario);
+        contextData.putValue(ScenarioLogContextPlugin.DEVICE, device);
+        LogEvent event = Log4jLogEvent.newBuilder()
+                .setLoggerName(ScenarioSegmentAppenderTest.class.getName())
+                .setLevel(Level.INFO)
+                .setMessage(new SimpleMessage(message))
+                .setContextData(contextData)
+                .setEndOfBatch(true)
+                .build();
+        appender.append(event);
+    }
+}
@@ -8,8 +8,12 @@ import org.apache.logging.log4j.ThreadContext;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URL;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The ServerManager class is responsible for managing the Appium server lifecycle,
@@ -18,7 +22,17 @@ import java.util.HashMap;
  * and testing frameworks.
  */
 public class ServerManager {
+    /**
+     * The port of an Appium server whose URL has none.
+     */
+    public static final int DEFAULT_PORT = 4723;
+
     private static ThreadLocal<AppiumDriverLocalService> server = new ThreadLocal<>();
+    // Servers started by startServer(), keyed by port, so that an unhealthy one can be restarted
+    private static final Map<Integer, AppiumDriverLocalService> managedServers = new ConcurrentHashMap<>();
+    // One lock per port: a server is started once however many runners ask for it, and servers on different
+    // ports start concurrently
+    private static final Map<Integer, Object> portLocks = new ConcurrentHashMap<>();
     TestUtils utils = new TestUtils();
 
     /**
@@ -40,6 +54,16 @@ public class ServerManager {
         return AppiumDriverLocalService.buildDefaultService();
     }
 
+    /**
+     * Builds an Appium server instance with the default configuration listening on the given port.
+     *
+     * @param port the port the server should listen on
+     * @return an instance of AppiumDriverLocalService constructed with the default configuration.
+     */
+    public AppiumDriverLocalService getAppiumServerDefault(int port) {
+        return AppiumDriverLocalService.buildService(new AppiumServiceBuilder().usingPort(port));
+    }
+
     /**
      * Builds and starts an AppiumDriverLocalService specifically configured for Windows platform testing.
      * The service is set to use any available free port, overrides existing sessions, and logs server
@@ -84,53 +108,140 @@ public class ServerManager {
     }
 
     /**
-     * Checks if an Appium server is running on the specified port.
-     * This method attempts to create a server socket on the given port.
-     * If the port is already in use, it catches an IOException and determines the port is occupied,
-     * indicating that an Appium server may be running.
+     * Retrieves the URL of the Appium server from the appiumURL in the config properties.
+     *
+     * @return the base URL of the Appium server
+     * @throws IOException if the config properties could not be loaded
+     */
+    public URL getServerUrl() throws IOException {
+        return URI.create(new PropertyManager().getProps().getProperty("appiumURL")).toURL();
+    }
+
+    /**
+     * @param url the base URL of an Appium server
+     * @return the port of the URL, or the Appium default port when it has none
+     */
+    public static int getPort(URL url) {
+        return url.getPort() == -1 ? DEFAULT_PORT : url.getPort();
+    }
+
+    /**
+     * Checks if an Appium server is running and ready on the specified port.
+     * This method polls the status endpoint of the server on the loopback interface, so a port taken
+     * by any other process is not mistaken for a running Appium server.
      *
      * @param port the port number to check for an active Appium server
-     * @return true if an Appium server is running on the specified port, false otherwise
-     * @throws Exception if any unexpected error occurs during the socket operation
+     * @return true if a ready Appium server is running on the specified port, false otherwise
+     * @throws Exception if any unexpected error occurs while building the status URL
      */
     public boolean checkIfAppiumServerIsRunnning(int port) throws Exception {
-        boolean isAppiumServerRunning = false;
-        ServerSocket socket;
-        try {
-            socket = new ServerSocket(port);
-            socket.close();
-        } catch (IOException e) {
-            System.out.println("1");
-            isAppiumServerRunning = true;
-        } finally {
-            socket = null;
+        return new ServerReadiness().isReady(URI.create("http://127.0.0.1:" + port).toURL());
+    }
+
+    /**
+     * Starts the Appium server at the appiumURL if a ready server is not already running there, and keeps
+     * the server instance for the current thread. The server is shared with the other runners using the same
+     * URL: runners release it with releaseServer(), and it is stopped by stopServers() at the end of the run.
+     *
+     * @throws Exception if any error occurs during the server operation or the readiness check
+     */
+    public void startServer() throws Exception {
+        AppiumDriverLocalService server = startServer(getServerUrl());
+        if (server != null) {
+            this.server.set(server);
         }
-        return isAppiumServerRunning;
     }
 
     /**
-     * Starts the Appium server if it is not already running on the default port.
+     * Starts an Appium server at the given URL if a ready server is not already running there.
      *
-     * This method first checks if an Appium server is running on port 4723. If a server
-     * is not detected on this port, it invokes the appropriate AppiumDriverLocalService
-     * instance to start the server. Server logs will not be displayed in the console by default.
-     * If the server is already running, an informational message is logged.
+     * This method first polls the status endpoint of the server. If the server is ready, it is reused.
+     * Otherwise the port is locked, so that only one thread starts its server, and the status is polled again in
+     * case another thread started it meanwhile. If the port is taken but the server does not report itself ready,
+     * a server started by this class is stopped and started again, while any other process is reported as a fatal
+     * error. Once started, the status endpoint is polled with exponential backoff and the start-to-ready latency
+     * is recorded.
+     * Server logs will not be displayed in the console by default.
      *
-     * @throws Exception if any error occurs during the server operation or port checking process
+     * @param url the base URL the server should listen on
+     * @return the server started by this class for that URL, or null if an external server is being reused
+     * @throws Exception if any error occurs during the server operation or the readiness check
      */
-    public void startServer() throws Exception {
+    public AppiumDriverLocalService startServer(URL url) throws Exception {
+        String routingKey = ThreadContext.get("ROUTINGKEY");
         ThreadContext.put("ROUTINGKEY", "ServerLogs");
-//		server = getAppiumService(); // -> If using Mac, uncomment this statement and comment below statement
-        AppiumDriverLocalService server = getAppiumServerDefault(); // -> If using Windows, uncomment this statement and comment above statement
-        if(!checkIfAppiumServerIsRunnning(4723)) {
-            server.start();
-            server.clearOutPutStreams(); // -> Comment this if you want to see server logs in the console
-            utils.log().info("Appium server started");
-        } else {
-            utils.log().info("Appium server already running");
+        try {
+            int port = getPort(url);
+            ServerReadiness readiness = new ServerReadiness();
+
+            if (readiness.isReady(url)) {
+                utils.log().info("Appium server already running at " + url);
+                return managedServers.get(port);
+            }
+
+            synchronized (portLocks.computeIfAbsent(port, k -> new Object())) {
+                if (readiness.isReady(url)) {
+                    utils.log().info("Appium server started by another runner at " + url);
+                    return managedServers.get(port);
+                }
+                AppiumDriverLocalService unhealthy = managedServers.remove(port);
+                if (unhealthy != null) {
+                    utils.log().error("Appium server on port " + port + " is not healthy, restarting it");
+                    unhealthy.stop();
+                } else if (readiness.isPortInUse(url)) {
+                    utils.log().fatal("Port " + port + " is in use by a process that is not a ready Appium server. ABORT!!!");
+                    throw new AppiumServerHasNotBeenStartedLocallyException("Port " + port + " is not available");
+                }
+
+                long start = System.nanoTime();
+                AppiumDriverLocalService server = buildServer(port);
+                server.start();
+                server.clearOutPutStreams(); // -> Comment this if you want to see server logs in the console
+                readiness.awaitReady(url, Duration.ofSeconds(60));
+                readiness.recordStartToReady(url, System.nanoTime() - start);
+                managedServers.put(port, server);
+                utils.log().info("Appium server started at " + url);
+                return server;
+            }
+        } finally {
+            if (routingKey != null) {
+                ThreadContext.put("ROUTINGKEY", routingKey);
+            }
         }
     }
 
+    /**
+     * Forgets the server of the current thread without stopping it, as other runners may still use it.
+     */
+    public void releaseServer() {
+        server.remove();
+    }
+
+    /**
+     * Builds the Appium server started by startServer(URL) on the given port.
+     *
+     * @param port the port the server should listen on
+     * @return the server, not started yet
+     */
+    AppiumDriverLocalService buildServer(int port) {
+//		return MacGetAppiumService(); // -> If using Mac, uncomment this statement and comment below statement
+        return getAppiumServerDefault(port); // -> If using Windows, uncomment this statement and comment above statement
+    }
+
+    /**
+     * Stops every Appium server started by this class. This is meant to be called once at the end of the run.
+     */
+    public void stopServers() {
+        managedServers.forEach((port, service) -> {
+            if (service.isRunning()) {
+                utils.log().info("Stopping the Appium server on port " + port);
+                service.stop();
+            }
+        });
+        managedServers.clear();
+        server.remove();
+    }
+
     /**
      * Starts the Appium server instance using the configured Windows Appium service.
      *
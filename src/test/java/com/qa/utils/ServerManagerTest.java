@@ -0,0 +1,139 @@
+package com.qa.utils;
+
+import io.appium.java_client.service.local.AppiumDriverLocalService;
+import io.appium.java_client.service.local.AppiumServiceBuilder;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests how the ServerManager starts servers for parallel runners, with a fake Appium main script run by node.
+ */
+public class ServerManagerTest {
+    private static final long BOOT_MILLIS = 1500;
+
+    private File fakeAppium;
+
+    /**
+     * A ServerManager that starts the fake Appium script and counts the servers it builds, with the time the
+     * last one was built.
+     */
+    private final class FakeServerManager extends ServerManager {
+        private final AtomicInteger builds = new AtomicInteger();
+        private final AtomicLong lastBuildNanos = new AtomicLong();
+
+        @Override
+        AppiumDriverLocalService buildServer(int port) {
+            builds.incrementAndGet();
+            lastBuildNanos.accumulateAndGet(System.nanoTime(), Math::max);
+            return AppiumDriverLocalService.buildService(new AppiumServiceBuilder()
+                    .withAppiumJS(fakeAppium)
+                    .withEnvironment(Map.of("FAKE_APPIUM_DELAY_MS", String.valueOf(BOOT_MILLIS)))
+                    .usingPort(port));
+        }
+    }
+
+    @BeforeClass
+    public void findNode() throws URISyntaxException {
+        fakeAppium = new File(getClass().getResource("/fake-appium/main.js").toURI());
+        try {
+            AppiumDriverLocalService.buildService(new AppiumServiceBuilder().withAppiumJS(fakeAppium).usingPort(4723));
+        } catch (RuntimeException e) {
+            throw new SkipException("node is needed to run the fake Appium server: " + e.getMessage());
+        }
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void stopServers() {
+        new ServerManager().stopServers();
+    }
+
+    @Test
+    public void runnersStartingTheSameServerTogetherShareIt() throws Exception {
+        FakeServerManager manager = new FakeServerManager();
+        URL url = freeUrl();
+
+        List<AppiumDriverLocalService> servers = startTogether(2, i -> manager.startServer(url));
+
+        assertEquals(manager.builds.get(), 1);
+        assertNotNull(servers.get(0));
+        assertSame(servers.get(1), servers.get(0));
+        assertTrue(servers.get(0).isRunning());
+    }
+
+    @Test
+    public void serversOnDifferentPortsStartConcurrently() throws Exception {
+        FakeServerManager manager = new FakeServerManager();
+        URL[] urls = {freeUrl(), freeUrl()};
+        long[] readyNanos = new long[urls.length];
+
+        List<AppiumDriverLocalService> servers = startTogether(urls.length, i -> {
+            AppiumDriverLocalService server = manager.startServer(urls[i]);
+            readyNanos[i] = System.nanoTime();
+            return server;
+        });
+
+        assertEquals(manager.builds.get(), 2);
+        assertTrue(servers.get(0).isRunning() && servers.get(1).isRunning());
+        assertTrue(manager.lastBuildNanos.get() < Math.min(readyNanos[0], readyNanos[1]),
+                "the second server was only started once the first one was ready");
+    }
+
+    private interface Start {
+        AppiumDriverLocalService start(int index) throws Exception;
+    }
+
+    // Runs the starts on their own threads, released at the same time, and returns their servers in order
+    private List<AppiumDriverLocalService> startTogether(int count, Start start) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(count);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<AppiumDriverLocalService>> futures = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                Callable<AppiumDriverLocalService> task = () -> {
+                    go.await();
+                    return start.start(index);
+                };
+                futures.add(executor.submit(task));
+            }
+            go.countDown();
+            List<AppiumDriverLocalService> servers = new ArrayList<>();
+            for (Future<AppiumDriverLocalService> future : futures) {
+                servers.add(future.get());
+            }
+            return servers;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private URL freeUrl() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return URI.create("http://127.0.0.1:" + socket.getLocalPort()).toURL();
+        }
+    }
+}
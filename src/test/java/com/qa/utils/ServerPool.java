@@ -0,0 +1,215 @@
+package com.qa.utils;
+
+import org.openqa.selenium.remote.SessionId;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The ServerPool class manages the Appium servers shared by the device workers of the suite.
+ *
+ * Depending on serverPoolMode in config.properties it runs one multi-session server for all devices
+ * ("shared"), one server per device ("per-device"), or one server per sessionsPerServer devices ("auto").
+ * The servers are spawned in the background at suite start, while the features are being parsed. Each
+ * device is pinned to the least loaded server, the sessions of every server are tracked, and all servers
+ * are stopped together at the end of the run.
+ *
+ * The first server listens on the appiumURL; the other servers get a port leased from the PortAllocator.
+ *
+ * With useSessionRouter set to true, drivers connect to a SessionRouter in front of the servers instead of to
+ * their pinned server directly; the router forwards the session to the server the device is pinned to.
+ */
+public class ServerPool {
+    private static final List<PooledServer> servers = new ArrayList<>();
+    private static final Map<String, PooledServer> devices = new ConcurrentHashMap<>();
+    private static final Map<SessionId, PooledServer> sessions = new ConcurrentHashMap<>();
+    private static ExecutorService executor;
+    private static SessionRouter router;
+
+    TestUtils utils = new TestUtils();
+
+    private static final class PooledServer {
+        private final URL url;
+        private final CompletableFuture<URL> ready;
+        private final AtomicInteger devices = new AtomicInteger();
+        private final AtomicInteger sessions = new AtomicInteger();
+
+        private PooledServer(URL url, CompletableFuture<URL> ready) {
+            this.url = url;
+            this.ready = ready;
+        }
+    }
+
+    /**
+     * Decides how many servers the suite needs for the given number of devices and starts spawning them
+     * in the background. This method does not wait for the servers to be ready.
+     *
+     * @param deviceCount the number of devices of the suite
+     * @throws IOException if the config properties could not be loaded
+     */
+    public void prespawn(int deviceCount) throws IOException {
+        Properties props = new PropertyManager().getProps();
+        String mode = props.getProperty("serverPoolMode", "auto");
+        int sessionsPerServer = Integer.parseInt(props.getProperty("sessionsPerServer", "4"));
+
+        int serverCount;
+        switch (mode) {
+            case "shared":
+                serverCount = 1;
+                break;
+            case "per-device":
+                serverCount = Math.max(1, deviceCount);
+                break;
+            case "auto":
+                serverCount = Math.max(1, (deviceCount + sessionsPerServer - 1) / sessionsPerServer);
+                break;
+            default:
+                throw new IllegalStateException("Invalid serverPoolMode: " + mode);
+        }
+
+        synchronized (servers) {
+            if (!servers.isEmpty()) {
+                return;
+            }
+            utils.log().info("Spawning " + serverCount + " Appium server(s) for " + deviceCount + " device(s) in "
+                    + mode + " mode");
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(serverCount, r -> {
+                Thread thread = new Thread(r, "appium-server-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            URL defaultUrl = new ServerManager().getServerUrl();
+            for (int i = 0; i < serverCount; i++) {
+                URL url = i == 0 ? defaultUrl : URI.create(defaultUrl.getProtocol() + "://" + defaultUrl.getHost() + ":"
+                        + new PortAllocator().lease("appium-server-" + i, 1)[0] + defaultUrl.getFile()).toURL();
+                CompletableFuture<URL> ready = CompletableFuture.supplyAsync(() -> {
+                    try {
+                        new ServerManager().startServer(url);
+                        return url;
+                    } catch (Exception e) {
+                        throw new IllegalStateException("Failed to start Appium server at " + url, e);
+                    }
+                }, executor);
+                servers.add(new PooledServer(url, ready));
+            }
+            if (Boolean.parseBoolean(props.getProperty("useSessionRouter", "false"))) {
+                router = new SessionRouter(new PortAllocator().lease("session-router", 1)[0]);
+                servers.forEach(server -> router.addBackend(server.url));
+                router.start();
+            }
+        }
+    }
+
+    /**
+     * Returns the URL of the server the device of the current thread is pinned to, pinning it to the least
+     * loaded server the first time and waiting for that server to be ready. When the session router is in use,
+     * the device is assigned to its server on the router and the URL of the router is returned instead.
+     *
+     * @param defaultUrl the URL to use when no servers were spawned by the pool
+     * @return the URL of the server to create the session on
+     */
+    public URL getServerUrl(URL defaultUrl) {
+        synchronized (servers) {
+            if (servers.isEmpty()) {
+                return defaultUrl;
+            }
+        }
+        PooledServer server = devices.computeIfAbsent(new DriverPool().getSessionKey(), key -> {
+            synchronized (servers) {
+                PooledServer leastLoaded = servers.get(0);
+                for (PooledServer candidate : servers) {
+                    if (candidate.devices.get() < leastLoaded.devices.get()) {
+                        leastLoaded = candidate;
+                    }
+                }
+                leastLoaded.devices.incrementAndGet();
+                utils.log().info("Device " + key + " pinned to Appium server " + leastLoaded.url);
+                return leastLoaded;
+            }
+        });
+        URL url = server.ready.join();
+        synchronized (servers) {
+            if (router != null) {
+                router.assignDevice(server.url, new GlobalParams().getUDID());
+                return router.getUrl();
+            }
+        }
+        return url;
+    }
+
+    /**
+     * Records a new session on the server at the given URL.
+     *
+     * @param sessionId the id of the new session
+     * @param url the URL of the server the session was created on
+     */
+    public void sessionStarted(SessionId sessionId, URL url) {
+        synchronized (servers) {
+            if (router != null && router.getUrl().equals(url)) {
+                url = devices.get(new DriverPool().getSessionKey()).url;
+            }
+            for (PooledServer server : servers) {
+                if (server.url.equals(url)) {
+                    sessions.put(sessionId, server);
+                    utils.log().info("Appium server " + url + " now has " + server.sessions.incrementAndGet()
+                            + " session(s)");
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the end of a session.
+     *
+     * @param sessionId the id of the session that is being quit
+     */
+    public void sessionEnded(SessionId sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        PooledServer server = sessions.remove(sessionId);
+        if (server != null) {
+            server.sessions.decrementAndGet();
+        }
+    }
+
+    /**
+     * Stops every server of the pool. This is meant to be called once at the end of the run, after all
+     * sessions have been quit.
+     */
+    public void shutdown() {
+        synchronized (servers) {
+            servers.forEach(server -> server.ready.cancel(false));
+            servers.forEach(server -> {
+                if (server.sessions.get() > 0) {
+                    utils.log().error("Appium server " + server.url + " still has " + server.sessions.get()
+                            + " session(s)");
+                }
+            });
+            servers.clear();
+            devices.clear();
+            sessions.clear();
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+            if (router != null) {
+                router.stop();
+                router = null;
+            }
+        }
+        new ServerManager().stopServers();
+        new PortAllocator().releaseAll();
+    }
+}
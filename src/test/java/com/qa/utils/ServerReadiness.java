@@ -0,0 +1,139 @@
+package com.qa.utils;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The ServerReadiness class tells whether an Appium server is actually ready to create sessions, by polling
+ * its {@code /status} endpoint instead of only checking whether its port is bound.
+ *
+ * It also keeps the start-to-ready latency of the servers started by the ServerManager, so the time spent
+ * waiting for servers shows up in the logs.
+ */
+public class ServerReadiness {
+    private static final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(500))
+            .build();
+    private static final LongAdder starts = new LongAdder();
+    private static final LongAdder startToReady = new LongAdder();
+    private static final LongAccumulator maxStartToReady = new LongAccumulator(Math::max, 0);
+
+    private static final long INITIAL_BACKOFF_MILLIS = 25;
+    private static final long MAX_BACKOFF_MILLIS = 1000;
+
+    TestUtils utils = new TestUtils();
+
+    /**
+     * Checks once whether the Appium server answers its status endpoint and reports itself ready.
+     *
+     * @param serverUrl the base URL of the Appium server
+     * @return true if the server is ready to create sessions
+     */
+    public boolean isReady(URL serverUrl) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(getStatusUri(serverUrl))
+                    .timeout(Duration.ofSeconds(2))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return false;
+            }
+            JSONObject value = new JSONObject(response.body()).optJSONObject("value");
+            return value == null || value.optBoolean("ready", true);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether some process is listening on the port of the given URL, whatever it is.
+     *
+     * @param serverUrl the base URL of the Appium server
+     * @return true if the port accepts connections
+     */
+    public boolean isPortInUse(URL serverUrl) {
+        try (Socket socket = new Socket(getProbeHost(serverUrl), ServerManager.getPort(serverUrl))) {
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Polls the status endpoint with exponential backoff until the server is ready.
+     *
+     * @param serverUrl the base URL of the Appium server
+     * @param timeout how long to wait for the server
+     * @return the time it took for the server to become ready, in nanoseconds
+     * @throws IllegalStateException if the server is not ready within the timeout
+     */
+    public long awaitReady(URL serverUrl, Duration timeout) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        while (!isReady(serverUrl)) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Appium server at " + serverUrl + " not ready after " + timeout);
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for Appium server at " + serverUrl, e);
+            }
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Records the time between starting a server and the server reporting itself ready.
+     *
+     * @param serverUrl the base URL of the Appium server
+     * @param nanos the start-to-ready latency in nanoseconds
+     */
+    public void recordStartToReady(URL serverUrl, long nanos) {
+        starts.increment();
+        startToReady.add(nanos);
+        maxStartToReady.accumulate(nanos);
+        utils.log().info("Appium server at " + serverUrl + " ready after " + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms");
+    }
+
+    /**
+     * Logs the number of server starts and their average and maximum start-to-ready latency.
+     */
+    public void logMetrics() {
+        long count = starts.sum();
+        if (count > 0) {
+            utils.log().info("Appium server starts: " + count + ", start-to-ready avg "
+                    + TimeUnit.NANOSECONDS.toMillis(startToReady.sum() / count) + " ms, max "
+                    + TimeUnit.NANOSECONDS.toMillis(maxStartToReady.get()) + " ms");
+        }
+    }
+
+    private URI getStatusUri(URL serverUrl) {
+        String path = serverUrl.getPath().endsWith("/") ? serverUrl.getPath() : serverUrl.getPath() + "/";
+        return URI.create(serverUrl.getProtocol() + "://" + getProbeHost(serverUrl) + ":" + ServerManager.getPort(serverUrl)
+                + path + "status");
+    }
+
+    // A server listening on all interfaces (0.0.0.0) is probed through the loopback interface
+    private String getProbeHost(URL serverUrl) {
+        return "0.0.0.0".equals(serverUrl.getHost()) ? "127.0.0.1" : serverUrl.getHost();
+    }
+}
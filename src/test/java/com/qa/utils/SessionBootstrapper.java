@@ -0,0 +1,92 @@
+package com.qa.utils;
+
+import org.apache.logging.log4j.ThreadContext;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The SessionBootstrapper class creates the sessions of every device of the suite concurrently, before
+ * the runners start. Each device gets its own CompletableFuture running on a bounded executor, with a
+ * per-device timeout. The created sessions are parked in the DriverPool, so a runner only has to wait for
+ * its own device instead of for the slowest device of a sequential chain.
+ *
+ * The concurrency and the timeout are read from config.properties (sessionBootstrapConcurrency and
+ * sessionBootstrapTimeout, in seconds).
+ */
+public class SessionBootstrapper {
+    private static final Map<String, CompletableFuture<Void>> sessions = new ConcurrentHashMap<>();
+
+    TestUtils utils = new TestUtils();
+
+    /**
+     * Starts creating one session per device. This method does not wait for the sessions to be created.
+     *
+     * @param devices the parameters of every device, as declared in testng.xml
+     * @throws IOException if the config properties could not be loaded
+     */
+    public void bootstrap(List<Map<String, String>> devices) throws IOException {
+        if (devices.isEmpty()) {
+            return;
+        }
+        Properties props = new PropertyManager().getProps();
+        int concurrency = Integer.parseInt(props.getProperty("sessionBootstrapConcurrency", "4"));
+        long timeout = Long.parseLong(props.getProperty("sessionBootstrapTimeout", "700"));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(concurrency, devices.size()), r -> {
+            Thread thread = new Thread(r, "session-bootstrap-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (Map<String, String> device : devices) {
+            String key = DriverPool.getSessionKey(device.get("platformName"), device.get("udid"),
+                    device.get("deviceName"));
+            utils.log().info("Bootstrapping session for " + key);
+            sessions.put(key, CompletableFuture.runAsync(() -> createSession(device), executor)
+                    .orTimeout(timeout, TimeUnit.SECONDS));
+        }
+
+        CompletableFuture.allOf(sessions.values().toArray(new CompletableFuture[0]))
+                .whenComplete((result, e) -> executor.shutdown());
+    }
+
+    /**
+     * Waits until the session of the device of the current thread has been bootstrapped. A device that failed
+     * or timed out is only logged, the runner will then try to create its session itself.
+     */
+    public void awaitSession() {
+        String key = new DriverPool().getSessionKey();
+        CompletableFuture<Void> session = sessions.remove(key);
+        if (session == null) {
+            return;
+        }
+        try {
+            session.join();
+            utils.log().info("Bootstrapped session is ready for " + key);
+        } catch (CompletionException e) {
+            utils.log().error("Session bootstrap failed for " + key + ": " + e.getCause());
+        }
+    }
+
+    private void createSession(Map<String, String> device) {
+        GlobalParams params = new GlobalParams();
+        params.initializeGlobalParams(device);
+        ThreadContext.put("ROUTINGKEY", params.getPlatformName() + "_" + params.getDeviceName());
+        try {
+            new DriverPool().warmUp(1);
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.qa.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The SessionRouter class is a small in-process, grid-style HTTP router in front of several local Appium servers.
+ *
+ * A new-session request is routed to the least loaded server that owns the requested device (by udid); a server
+ * without assigned devices accepts any device. Every other command is proxied to the server owning its session id.
+ * All servers are reached through one shared HTTP client, so connections are kept alive and reused across sessions.
+ * Drivers only need the URL of the router, so capacity is added by adding servers instead of reconfiguring runners.
+ */
+public class SessionRouter {
+    private static final Pattern SESSION_PATH = Pattern.compile("/session/([^/]+)");
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of("connection", "content-length", "expect", "host",
+            "keep-alive", "transfer-encoding", "upgrade");
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final List<Backend> backends = new CopyOnWriteArrayList<>();
+    private final Map<String, Backend> sessions = new ConcurrentHashMap<>();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    TestUtils utils = new TestUtils();
+
+    private static final class Backend {
+        private final URL url;
+        private final Set<String> udids = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger sessions = new AtomicInteger();
+
+        private Backend(URL url) {
+            this.url = url;
+        }
+
+        private boolean owns(String udid) {
+            return udids.isEmpty() || (udid != null && udids.contains(udid));
+        }
+    }
+
+    /**
+     * Creates a router listening on the loopback interface.
+     *
+     * @param port the port the router listens on
+     * @throws IOException if the port could not be bound
+     */
+    public SessionRouter(int port) throws IOException {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "session-router-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        utils.log().info("Session router listening on " + getUrl());
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+        utils.log().info("Session router stopped");
+    }
+
+    /**
+     * @return the URL drivers should use to create their sessions through the router
+     */
+    public URL getUrl() {
+        try {
+            return URI.create("http://127.0.0.1:" + server.getAddress().getPort()).toURL();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Adds an Appium server the router can route sessions to.
+     *
+     * @param url the base URL of the Appium server
+     */
+    public void addBackend(URL url) {
+        if (findBackend(url) == null) {
+            backends.add(new Backend(url));
+            utils.log().info("Session router backend added: " + url);
+        }
+    }
+
+    /**
+     * Declares that a device is served by the given Appium server. A server with assigned devices only
+     * receives new-session requests for those devices.
+     *
+     * @param url the base URL of the Appium server
+     * @param udid the unique device identifier
+     */
+    public void assignDevice(URL url, String udid) {
+        addBackend(url);
+        findBackend(url).udids.add(udid);
+    }
+
+    private Backend findBackend(URL url) {
+        for (Backend backend : backends) {
+            if (backend.url.equals(url)) {
+                return backend;
+            }
+        }
+        return null;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getRawPath();
+            String method = exchange.getRequestMethod();
+            byte[] body = readBody(exchange.getRequestBody());
+
+            if (path.endsWith("/session") && "POST".equals(method)) {
+                newSession(exchange, body);
+                return;
+            }
+            if (path.endsWith("/status") && "GET".equals(method)) {
+                respond(exchange, 200, new JSONObject().put("value", new JSONObject()
+                        .put("ready", !backends.isEmpty())
+                        .put("message", backends.size() + " backend(s)")).toString());
+                return;
+            }
+
+            Matcher matcher = SESSION_PATH.matcher(path);
+            String sessionId = matcher.find() ? matcher.group(1) : null;
+            Backend backend = sessionId != null ? sessions.get(sessionId) : (backends.isEmpty() ? null : backends.get(0));
+            if (backend == null) {
+                respondError(exchange, 404, "invalid session id", "No backend owns " + path);
+                return;
+            }
+            HttpResponse<byte[]> response = forward(exchange, backend, body);
+            if ("DELETE".equals(method) && path.endsWith("/session/" + sessionId) && sessions.remove(sessionId) != null) {
+                backend.sessions.decrementAndGet();
+            }
+            relay(exchange, response);
+        } catch (Exception e) {
+            utils.log().error("Session router failure: " + e);
+            // Once the status line is sent, e.g. when relaying the body failed, the exchange can only be closed
+            if (exchange.getResponseCode() == -1) {
+                respondError(exchange, 500, "unknown error", String.valueOf(e.getMessage()));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void newSession(HttpExchange exchange, byte[] body) throws Exception {
+        String udid = getRequestedUdid(new JSONObject(new String(body, StandardCharsets.UTF_8)));
+        Backend target = null;
+        for (Backend backend : backends) {
+            if (backend.owns(udid) && (target == null || backend.sessions.get() < target.sessions.get())) {
+                target = backend;
+            }
+        }
+        if (target == null) {
+            respondError(exchange, 500, "session not created", "No backend owns device " + udid);
+            return;
+        }
+
+        HttpResponse<byte[]> response = forward(exchange, target, body);
+        if (response.statusCode() == 200) {
+            JSONObject json = new JSONObject(new String(response.body(), StandardCharsets.UTF_8));
+            JSONObject value = json.optJSONObject("value");
+            String sessionId = value != null && value.has("sessionId") ? value.getString("sessionId")
+                    : json.optString("sessionId", null);
+            if (sessionId != null) {
+                sessions.put(sessionId, target);
+                utils.log().info("Session " + sessionId + " for " + udid + " routed to " + target.url + " ("
+                        + target.sessions.incrementAndGet() + " session(s))");
+            }
+        }
+        relay(exchange, response);
+    }
+
+    private String getRequestedUdid(JSONObject request) {
+        JSONObject capabilities = request.optJSONObject("capabilities");
+        if (capabilities == null) {
+            return null;
+        }
+        JSONObject alwaysMatch = capabilities.optJSONObject("alwaysMatch");
+        if (alwaysMatch != null && alwaysMatch.has("appium:udid")) {
+            return alwaysMatch.getString("appium:udid");
+        }
+        JSONArray firstMatch = capabilities.optJSONArray("firstMatch");
+        if (firstMatch != null) {
+            for (int i = 0; i < firstMatch.length(); i++) {
+                JSONObject candidate = firstMatch.optJSONObject(i);
+                if (candidate != null && candidate.has("appium:udid")) {
+                    return candidate.getString("appium:udid");
+                }
+            }
+        }
+        return null;
+    }
+
+    private HttpResponse<byte[]> forward(HttpExchange exchange, Backend backend, byte[] body) throws Exception {
+        String host = "0.0.0.0".equals(backend.url.getHost()) ? "127.0.0.1" : backend.url.getHost();
+        String basePath = backend.url.getPath().endsWith("/")
+                ? backend.url.getPath().substring(0, backend.url.getPath().length() - 1) : backend.url.getPath();
+        String query = exchange.getRequestURI().getRawQuery();
+        URI target = URI.create(backend.url.getProtocol() + "://" + host + ":" + ServerManager.getPort(backend.url)
+                + basePath
+                + exchange.getRequestURI().getRawPath() + (query == null ? "" : "?" + query));
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(target)
+                .method(exchange.getRequestMethod(), body.length == 0
+                        ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body));
+        exchange.getRequestHeaders().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase())) {
+                values.forEach(value -> request.header(name, value));
+            }
+        });
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private void relay(HttpExchange exchange, HttpResponse<byte[]> response) throws IOException {
+        response.headers().map().forEach((name, values) -> {
+            if (!HOP_BY_HOP_HEADERS.contains(name.toLowerCase()) && !name.startsWith(":")) {
+                exchange.getResponseHeaders().put(name, values);
+            }
+        });
+        byte[] body = response.body();
+        exchange.sendResponseHeaders(response.statusCode(), body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private void respondError(HttpExchange exchange, int status, String error, String message) throws IOException {
+        respond(exchange, status, new JSONObject().put("value", new JSONObject()
+                .put("error", error)
+                .put("message", message)
+                .put("stacktrace", "")).toString());
+    }
+
+    private void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private byte[] readBody(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+}
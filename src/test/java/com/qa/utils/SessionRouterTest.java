@@ -0,0 +1,178 @@
+package com.qa.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONObject;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Tests the SessionRouter against two stub Appium servers, which answer with their own name.
+ */
+public class SessionRouterTest {
+    private final HttpClient client = HttpClient.newHttpClient();
+    private StubServer serverA;
+    private StubServer serverB;
+    private SessionRouter router;
+
+    /**
+     * A stub Appium server: creates sessions named after the server and answers every other command with its name.
+     */
+    private static final class StubServer {
+        private final String name;
+        private final HttpServer server;
+        private final AtomicInteger sessionCount = new AtomicInteger();
+        private final List<String> requests = new CopyOnWriteArrayList<>();
+
+        private StubServer(String name) throws IOException {
+            this.name = name;
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/", this::handle);
+            server.start();
+        }
+
+        private URL getUrl() throws IOException {
+            return URI.create("http://127.0.0.1:" + server.getAddress().getPort()).toURL();
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            String path = exchange.getRequestURI().getRawPath();
+            requests.add(exchange.getRequestMethod() + " " + path);
+            JSONObject value = new JSONObject().put("server", name);
+            if ("POST".equals(exchange.getRequestMethod()) && path.equals("/session")) {
+                value.put("sessionId", name + "-" + sessionCount.incrementAndGet())
+                        .put("capabilities", new JSONObject());
+            }
+            byte[] body = new JSONObject().put("value", value).toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        serverA = new StubServer("A");
+        serverB = new StubServer("B");
+        router = new SessionRouter(0);
+        router.start();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() {
+        router.stop();
+        serverA.server.stop(0);
+        serverB.server.stop(0);
+    }
+
+    @Test
+    public void newSessionIsPinnedToTheServerOwningTheDevice() throws Exception {
+        router.assignDevice(serverA.getUrl(), "device-a");
+        router.assignDevice(serverB.getUrl(), "device-b");
+
+        String sessionB = createSession("device-b");
+        String sessionA = createSession("device-a");
+
+        assertEquals(sessionB, "B-1");
+        assertEquals(sessionA, "A-1");
+        assertEquals(serverA.requests, List.of("POST /session"));
+        assertEquals(serverB.requests, List.of("POST /session"));
+    }
+
+    @Test
+    public void commandsAreProxiedToTheServerOfTheirSession() throws Exception {
+        router.addBackend(serverA.getUrl());
+        router.addBackend(serverB.getUrl());
+        String first = createSession("device-1");
+        String second = createSession("device-2");
+        assertNotEquals(first.charAt(0), second.charAt(0), "sessions should be spread over both servers");
+
+        HttpResponse<String> source = send("GET", "/session/" + second + "/source?full=true", null);
+
+        assertEquals(source.statusCode(), 200);
+        assertEquals(value(source).getString("server"), second.substring(0, 1));
+        StubServer owner = second.startsWith("A") ? serverA : serverB;
+        assertTrue(owner.requests.contains("GET /session/" + second + "/source"), owner.requests.toString());
+    }
+
+    @Test
+    public void deletedSessionIsNoLongerRouted() throws Exception {
+        router.addBackend(serverA.getUrl());
+        String sessionId = createSession("device-1");
+
+        assertEquals(send("DELETE", "/session/" + sessionId, null).statusCode(), 200);
+        HttpResponse<String> afterDelete = send("GET", "/session/" + sessionId + "/source", null);
+
+        assertEquals(afterDelete.statusCode(), 404);
+        assertEquals(value(afterDelete).getString("error"), "invalid session id");
+        assertEquals(serverA.requests, List.of("POST /session", "DELETE /session/" + sessionId));
+    }
+
+    @Test
+    public void newSessionForAnUnownedDeviceIsRejected() throws Exception {
+        router.assignDevice(serverA.getUrl(), "device-a");
+
+        HttpResponse<String> response = send("POST", "/session", newSessionRequest("device-x"));
+
+        assertEquals(response.statusCode(), 500);
+        assertEquals(value(response).getString("error"), "session not created");
+        assertTrue(serverA.requests.isEmpty());
+    }
+
+    @Test
+    public void unreachableServerIsReportedAsAnError() throws Exception {
+        URL down = serverA.getUrl();
+        serverA.server.stop(0);
+        router.addBackend(down);
+
+        HttpResponse<String> response = send("POST", "/session", newSessionRequest("device-1"));
+
+        assertEquals(response.statusCode(), 500);
+        assertEquals(value(response).getString("error"), "unknown error");
+    }
+
+    private String createSession(String udid) throws Exception {
+        HttpResponse<String> response = send("POST", "/session", newSessionRequest(udid));
+        assertEquals(response.statusCode(), 200, response.body());
+        return value(response).getString("sessionId");
+    }
+
+    private String newSessionRequest(String udid) {
+        return new JSONObject().put("capabilities", new JSONObject()
+                .put("alwaysMatch", new JSONObject().put("platformName", "Android").put("appium:udid", udid)))
+                .toString();
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(router.getUrl() + path))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JSONObject value(HttpResponse<String> response) {
+        return new JSONObject(response.body()).getJSONObject("value");
+    }
+}
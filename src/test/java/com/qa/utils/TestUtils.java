@@ -23,6 +23,24 @@ import java.util.HashMap;
 public class TestUtils {
     public static  final long WAIT = 10;
 
+    private static final StackWalker walker = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    private static final ClassValue<Logger> loggers = new ClassValue<Logger>() {
+        @Override
+        protected Logger computeValue(Class<?> type) {
+            return LogManager.getLogger(type);
+        }
+    };
+
+    private final Logger logger;
+
+    /**
+     * Creates the utilities of the calling class, which is the class that declares the {@code utils} field.
+     * Its logger is resolved here, once per class, rather than on every log statement.
+     */
+    public TestUtils() {
+        this.logger = loggers.get(walker.getCallerClass());
+    }
+
     /**
      * Parses the provided XML input stream and extracts key-value pairs where
      * the key is the value of the "name" attribute, and the value is the text content
@@ -73,22 +91,22 @@ public class TestUtils {
     public String dateTime(){
         DateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss");
         Date date = new Date();
-        log().info("Exact Date & Time: "+ dateFormat.format(date));
+        log().info("Exact Date & Time: {}", dateFormat.format(date));
         return dateFormat.format(date);
     }
 
     /**
-     * Retrieves a logger instance using log4j2.
+     * Retrieves the log4j2 logger of the class that created these utilities.
      *
-     * This method dynamically determines the class name from the call stack of the
-     * calling thread and initializes a logger for that class using LogManager from
-     * the log4j2 library.
+     * Loggers are asynchronous and garbage-free (see log4j2.component.properties): prefer parameterized
+     * messages, e.g. {@code log().info("Took {} ms", millis)}, which are formatted into a reused buffer
+     * instead of concatenating a new String on every call.
      *
-     * @return a Logger instance specific to the class that invoked this method.
+     * @return the Logger of the class that created these utilities.
      */
     // This method is used to get the logger using log4j2
     public Logger log() {
-        return LogManager.getLogger(Thread.currentThread().getStackTrace()[2].getClassName());
+        return logger;
     }
 
 }
@@ -0,0 +1,83 @@
+package com.qa.utils;
+
+/**
+ * The ThreadTimings class accumulates, per thread, the time spent in explicit waits and in driver commands sent
+ * outside of waits, so that a profiler can split the duration of a step into waiting, driver round trips and
+ * the remaining client-side time by taking the difference of two readings.
+ */
+public class ThreadTimings {
+    private static final ThreadLocal<long[]> timings = ThreadLocal.withInitial(() -> new long[4]);
+
+    private static final int WAIT_NANOS = 0;
+    private static final int DRIVER_NANOS = 1;
+    private static final int DRIVER_CALLS = 2;
+    private static final int WAIT_DEPTH = 3;
+
+    /**
+     * A reading of the timings of the current thread.
+     */
+    public static final class Reading {
+        private final long waitNanos;
+        private final long driverNanos;
+        private final long driverCalls;
+
+        private Reading(long[] values) {
+            this.waitNanos = values[WAIT_NANOS];
+            this.driverNanos = values[DRIVER_NANOS];
+            this.driverCalls = values[DRIVER_CALLS];
+        }
+
+        /**
+         * @return the time spent in explicit waits since the earlier reading
+         */
+        public long waitNanosSince(Reading earlier) {
+            return waitNanos - earlier.waitNanos;
+        }
+
+        /**
+         * @return the time spent in driver commands outside of waits since the earlier reading
+         */
+        public long driverNanosSince(Reading earlier) {
+            return driverNanos - earlier.driverNanos;
+        }
+
+        /**
+         * @return the number of driver commands sent outside of waits since the earlier reading
+         */
+        public long driverCallsSince(Reading earlier) {
+            return driverCalls - earlier.driverCalls;
+        }
+    }
+
+    public Reading read() {
+        return new Reading(timings.get());
+    }
+
+    /**
+     * Marks the start of an explicit wait; driver commands sent until {@link #waitFinished(long)} count as waiting.
+     */
+    public void waitStarted() {
+        timings.get()[WAIT_DEPTH]++;
+    }
+
+    /**
+     * @param nanos the duration of the wait
+     */
+    public void waitFinished(long nanos) {
+        long[] values = timings.get();
+        if (--values[WAIT_DEPTH] == 0) {
+            values[WAIT_NANOS] += nanos;
+        }
+    }
+
+    /**
+     * @param nanos the duration of a driver command
+     */
+    public void driverCommand(long nanos) {
+        long[] values = timings.get();
+        if (values[WAIT_DEPTH] == 0) {
+            values[DRIVER_NANOS] += nanos;
+            values[DRIVER_CALLS]++;
+        }
+    }
+}
@@ -1,11 +1,25 @@
 package com.qa.utils;
 
 import io.appium.java_client.screenrecording.CanRecordScreen;
-import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.binary.Base64InputStream;
+import org.apache.commons.io.input.CharSequenceInputStream;
+import org.apache.logging.log4j.ThreadContext;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The VideoManager class provides functionality to manage screen recording operations
@@ -14,9 +28,24 @@ import java.io.IOException;
  *
  * This class utilizes the AppiumDriver to handle the recording operations and leverages
  * the TestUtils and GlobalParams classes for logging and platform-specific configurations.
+ *
+ * Videos are saved by a small background executor, so the next scenario does not wait for the file to be written:
+ * the Base64 recording is decoded in chunks straight into a file channel, without holding the decoded video in
+ * memory next to it. At most WRITE_QUEUE recordings wait for a writer; when the queue is full the test thread
+ * saves its recording itself, which bounds the memory held by pending recordings. Pending writes are awaited at
+ * the end of the suite, and by a shutdown hook if the JVM exits before that.
  */
 public class VideoManager {
-    TestUtils utils = new TestUtils();
+    private static final int WRITER_THREADS = 2;
+    private static final int WRITE_QUEUE = 2;
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 120;
+
+    private static final ThreadPoolExecutor writers = createWriters();
+    // The number of recordings handed to the writers and not saved yet, guarded by itself
+    private static final int[] pending = new int[1];
+
+    static TestUtils utils = new TestUtils();
 
     public void startRecording(){
         ((CanRecordScreen) new DriverManager().getDriver()).startRecordingScreen();
@@ -28,25 +57,97 @@ public class VideoManager {
         String dirPath = params.getPlatformName() + "_"
                 + params.getDeviceName() + File.separator +"Videos";
 
-        File videoDir = new File(dirPath);
+        Path videoDir = Files.createDirectories(Paths.get(dirPath));
+        Path videoFile = videoDir.resolve(scenarioName + ".mp4");
+        String routingKey = ThreadContext.get("ROUTINGKEY");
+        synchronized (pending) {
+            pending[0]++;
+        }
+        writers.execute(() -> {
+            // The log lines of the writer go to the device of the recording
+            String writerKey = ThreadContext.get("ROUTINGKEY");
+            if (routingKey != null) {
+                ThreadContext.put("ROUTINGKEY", routingKey);
+            }
+            try {
+                write(media, videoFile);
+                utils.log().info("video path: {}", videoFile);
+            } catch (Exception e) {
+                utils.log().error("error during video capture {}", e.toString());
+            } finally {
+                if (writerKey != null) {
+                    ThreadContext.put("ROUTINGKEY", writerKey);
+                } else {
+                    ThreadContext.remove("ROUTINGKEY");
+                }
+                synchronized (pending) {
+                    pending[0]--;
+                    pending.notifyAll();
+                }
+            }
+        });
+    }
 
-        synchronized(videoDir){
-            if(!videoDir.exists()) {
-                videoDir.mkdirs();
+    /**
+     * Waits until the recordings already handed to the writers are saved.
+     */
+    public static void awaitPendingWrites() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_TIMEOUT_SECONDS);
+        synchronized (pending) {
+            while (pending[0] > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    utils.log().error("{} video write(s) still pending after {} s", pending[0],
+                            SHUTDOWN_TIMEOUT_SECONDS);
+                    return;
+                }
+                try {
+                    pending.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
             }
         }
-        FileOutputStream stream = null;
-        try {
-            stream = new FileOutputStream(videoDir + File.separator + scenarioName + ".mp4");
-            stream.write(Base64.decodeBase64(media));
-            stream.close();
-            utils.log().info("video path: " + videoDir + File.separator + scenarioName + ".mp4");
-        } catch (Exception e) {
-            utils.log().error("error during video capture" + e.toString());
-        } finally {
-            if(stream != null) {
-                stream.close();
+    }
+
+    // Decodes the recording chunk by chunk into a partial file, renamed once complete
+    private static void write(String media, Path videoFile) throws IOException {
+        Path partFile = videoFile.resolveSibling(videoFile.getFileName() + ".part");
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+        try (InputStream in = new Base64InputStream(CharSequenceInputStream.builder().setCharSequence(media)
+                     .setCharset(StandardCharsets.US_ASCII).setBufferSize(CHUNK_SIZE).get());
+             FileChannel channel = FileChannel.open(partFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            int read;
+            while ((read = in.read(buffer.array(), 0, buffer.capacity())) != -1) {
+                buffer.limit(read);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
             }
         }
+        Files.move(partFile, videoFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static ThreadPoolExecutor createWriters() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(WRITER_THREADS, WRITER_THREADS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(WRITE_QUEUE), runnable -> {
+                    Thread thread = new Thread(runnable, "video-writer-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "video-writer-shutdown"));
+        return executor;
     }
 }
@@ -0,0 +1,184 @@
+package com.qa.utils;
+
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.openqa.selenium.support.ui.FluentWait;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The WaitEngine class runs the explicit waits of the page objects, reusing one FluentWait per thread instead
+ * of allocating a WebDriverWait for every call.
+ *
+ * It keeps a latency histogram per page and locator and adapts each wait to it: the polling interval is a
+ * quarter of the median latency (between 25 ms and 500 ms), and the timeout is the larger of TestUtils.WAIT
+ * and three times the 99th percentile (at most 60 s). Until a locator has enough samples, waits poll every
+ * 100 ms with the TestUtils.WAIT timeout.
+ *
+ * A wait that times out is recorded as a sample of its timeout, a lower bound of the actual latency, and the
+ * timeouts of that locator are at least twice the longest timeout it missed from then on. A screen slower than
+ * TestUtils.WAIT therefore times out a few times at most, with longer timeouts each time, instead of on every wait.
+ */
+public class WaitEngine {
+    private static final ThreadLocal<DriverWait> waits = new ThreadLocal<>();
+    private static final Map<String, Map<String, Histogram>> stats = new ConcurrentHashMap<>();
+
+    private static final int MIN_SAMPLES = 5;
+    private static final long DEFAULT_POLL_MILLIS = 100;
+    private static final long MIN_POLL_MILLIS = 25;
+    private static final long MAX_POLL_MILLIS = 500;
+    private static final long MAX_TIMEOUT_MILLIS = 60_000;
+
+    static TestUtils utils = new TestUtils();
+
+    private static final class DriverWait {
+        private final AppiumDriver driver;
+        private final FluentWait<WebDriver> wait;
+
+        private DriverWait(AppiumDriver driver) {
+            this.driver = driver;
+            this.wait = new FluentWait<WebDriver>(driver).ignoring(NotFoundException.class);
+        }
+    }
+
+    /**
+     * Latencies in milliseconds, in power-of-two buckets: bucket i holds the latencies below 2^i ms.
+     */
+    static final class Histogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(18);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAccumulator maxMissedTimeout = new LongAccumulator(Math::max, 0);
+
+        void record(long millis) {
+            buckets.incrementAndGet(Math.min(buckets.length() - 1, 64 - Long.numberOfLeadingZeros(millis)));
+            count.increment();
+        }
+
+        void recordTimeout(long timeoutMillis) {
+            record(timeoutMillis);
+            timeouts.increment();
+            maxMissedTimeout.accumulate(timeoutMillis);
+        }
+
+        long percentile(double p) {
+            long rank = (long) Math.ceil(count.sum() * p);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return 1L << i;
+                }
+            }
+            return 1L << (buckets.length() - 1);
+        }
+
+        long pollMillis() {
+            if (count.sum() < MIN_SAMPLES) {
+                return DEFAULT_POLL_MILLIS;
+            }
+            return Math.max(MIN_POLL_MILLIS, Math.min(MAX_POLL_MILLIS, percentile(0.5) / 4));
+        }
+
+        long timeoutMillis() {
+            long timeout = TestUtils.WAIT * 1000;
+            if (count.sum() >= MIN_SAMPLES) {
+                timeout = Math.max(timeout, 3 * percentile(0.99));
+            }
+            return Math.min(MAX_TIMEOUT_MILLIS, Math.max(timeout, 2 * maxMissedTimeout.get()));
+        }
+    }
+
+    /**
+     * Waits until the condition is met, with the polling interval and timeout adapted to the locator.
+     *
+     * @param driver the driver the condition is evaluated with
+     * @param page the name of the page waiting
+     * @param locator a stable description of the element waited for
+     * @param condition the condition to wait for
+     * @param <T> the type returned by the condition
+     * @return the value returned by the condition
+     * @throws TimeoutException if the condition is not met within the timeout
+     */
+    public <T> T until(AppiumDriver driver, String page, String locator, ExpectedCondition<T> condition) {
+        Histogram histogram = getHistogram(page, locator);
+        return until(driver, histogram, Duration.ofMillis(histogram.timeoutMillis()), condition);
+    }
+
+    /**
+     * Waits until the condition is met within the given timeout, with the polling interval adapted to the locator.
+     *
+     * @param driver the driver the condition is evaluated with
+     * @param page the name of the page waiting
+     * @param locator a stable description of the element waited for
+     * @param timeout how long to wait
+     * @param condition the condition to wait for
+     * @param <T> the type returned by the condition
+     * @return the value returned by the condition
+     * @throws TimeoutException if the condition is not met within the timeout
+     */
+    public <T> T until(AppiumDriver driver, String page, String locator, Duration timeout,
+                       ExpectedCondition<T> condition) {
+        return until(driver, getHistogram(page, locator), timeout, condition);
+    }
+
+    private <T> T until(AppiumDriver driver, Histogram histogram, Duration timeout, ExpectedCondition<T> condition) {
+        FluentWait<WebDriver> wait = getWait(driver)
+                .withTimeout(timeout)
+                .pollingEvery(Duration.ofMillis(histogram.pollMillis()));
+        ThreadTimings timings = new ThreadTimings();
+        timings.waitStarted();
+        long start = System.nanoTime();
+        try {
+            T result = wait.until(condition);
+            histogram.record((System.nanoTime() - start) / 1_000_000);
+            return result;
+        } catch (TimeoutException e) {
+            histogram.recordTimeout(timeout.toMillis());
+            throw e;
+        } finally {
+            timings.waitFinished(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Logs the wait statistics of every locator, grouped by page.
+     */
+    public void logStats() {
+        new TreeMap<>(stats).forEach((page, locators) -> {
+            StringBuilder sb = new StringBuilder("Waits on " + page + ":");
+            new TreeMap<>(locators).forEach((locator, histogram) -> sb.append(System.lineSeparator())
+                    .append("  ").append(locator)
+                    .append(" n=").append(histogram.count.sum())
+                    .append(" p50<").append(histogram.percentile(0.5)).append("ms")
+                    .append(" p99<").append(histogram.percentile(0.99)).append("ms")
+                    .append(" poll=").append(histogram.pollMillis()).append("ms")
+                    .append(" timeout=").append(histogram.timeoutMillis()).append("ms")
+                    .append(" timeouts=").append(histogram.timeouts.sum()));
+            utils.log().info(sb.toString());
+        });
+    }
+
+    private Histogram getHistogram(String page, String locator) {
+        return stats.computeIfAbsent(page, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(locator, k -> new Histogram());
+    }
+
+    private FluentWait<WebDriver> getWait(AppiumDriver driver) {
+        DriverWait driverWait = waits.get();
+        if (driverWait == null || driverWait.driver != driver) {
+            driverWait = new DriverWait(driver);
+            waits.set(driverWait);
+        }
+        return driverWait.wait;
+    }
+}
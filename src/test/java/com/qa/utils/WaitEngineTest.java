@@ -0,0 +1,96 @@
+package com.qa.utils;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Tests how the WaitEngine adapts the polling interval and timeout of a locator to its latencies and timeouts.
+ */
+public class WaitEngineTest {
+    private static final long DEFAULT_TIMEOUT = TestUtils.WAIT * 1000;
+
+    @Test
+    public void newLocatorsUseTheDefaults() {
+        WaitEngine.Histogram histogram = new WaitEngine.Histogram();
+        for (int i = 0; i < 4; i++) {
+            histogram.record(5_000);
+        }
+
+        assertEquals(histogram.pollMillis(), 100);
+        assertEquals(histogram.timeoutMillis(), DEFAULT_TIMEOUT);
+    }
+
+    @Test
+    public void fastLocatorsPollOftenAndKeepTheDefaultTimeout() {
+        WaitEngine.Histogram histogram = new WaitEngine.Histogram();
+        for (int i = 0; i < 20; i++) {
+            histogram.record(200);
+        }
+
+        assertEquals(histogram.percentile(0.5), 256);
+        assertEquals(histogram.pollMillis(), 64);
+        assertEquals(histogram.timeoutMillis(), DEFAULT_TIMEOUT);
+    }
+
+    @Test
+    public void pollingIsBounded() {
+        WaitEngine.Histogram fast = new WaitEngine.Histogram();
+        WaitEngine.Histogram slow = new WaitEngine.Histogram();
+        for (int i = 0; i < 20; i++) {
+            fast.record(1);
+            slow.record(30_000);
+        }
+
+        assertEquals(fast.pollMillis(), 25);
+        assertEquals(slow.pollMillis(), 500);
+    }
+
+    @Test
+    public void slowLocatorsGetThreeTimesTheirP99UpToTheMaximum() {
+        WaitEngine.Histogram histogram = new WaitEngine.Histogram();
+        for (int i = 0; i < 20; i++) {
+            histogram.record(5_000);
+        }
+        assertEquals(histogram.timeoutMillis(), 3 * 8_192);
+
+        for (int i = 0; i < 20; i++) {
+            histogram.record(30_000);
+        }
+        assertEquals(histogram.timeoutMillis(), 60_000);
+    }
+
+    @Test
+    public void timeoutsGrowAfterEveryMissUpToTheMaximum() {
+        WaitEngine.Histogram histogram = new WaitEngine.Histogram();
+
+        histogram.recordTimeout(DEFAULT_TIMEOUT);
+        assertEquals(histogram.timeoutMillis(), 2 * DEFAULT_TIMEOUT);
+        histogram.recordTimeout(2 * DEFAULT_TIMEOUT);
+        assertEquals(histogram.timeoutMillis(), 4 * DEFAULT_TIMEOUT);
+        histogram.recordTimeout(4 * DEFAULT_TIMEOUT);
+        assertEquals(histogram.timeoutMillis(), 60_000);
+    }
+
+    @Test
+    public void aMissIsNotForgottenOnceTheLocatorSucceeds() {
+        WaitEngine.Histogram histogram = new WaitEngine.Histogram();
+        histogram.recordTimeout(DEFAULT_TIMEOUT);
+        for (int i = 0; i < 200; i++) {
+            histogram.record(100);
+        }
+
+        assertEquals(histogram.timeoutMillis(), 2 * DEFAULT_TIMEOUT);
+    }
+
+    @Test
+    public void aMissIsASampleOfTheTimeout() {
+        WaitEngine.Histogram histogram = new WaitEngine.Histogram();
+        for (int i = 0; i < 5; i++) {
+            histogram.recordTimeout(1_000);
+        }
+
+        assertEquals(histogram.percentile(0.99), 1_024);
+        assertEquals(histogram.timeoutMillis(), DEFAULT_TIMEOUT);
+    }
+}
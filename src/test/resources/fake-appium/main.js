@@ -0,0 +1,9 @@
+// A stand-in for the Appium main script, for the ServerManager tests: it listens on the --port it is given after
+// FAKE_APPIUM_DELAY_MS, as a server slow to boot would, and reports itself ready on every request.
+const http = require('http');
+const args = process.argv.slice(2);
+const port = Number(args[args.indexOf('--port') + 1]);
+setTimeout(() => http.createServer((req, res) => {
+  res.writeHead(200, {'Content-Type': 'application/json'});
+  res.end(JSON.stringify({value: {ready: true}}));
+}).listen(port, '127.0.0.1'), Number(process.env.FAKE_APPIUM_DELAY_MS || 1000));